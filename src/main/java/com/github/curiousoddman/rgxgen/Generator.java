@@ -0,0 +1,176 @@
+package com.github.curiousoddman.rgxgen;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.program.Program;
+import com.github.curiousoddman.rgxgen.program.ProgramExecutor;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.random.XoroshiroRandomSource;
+import com.github.curiousoddman.rgxgen.util.Util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable generator of matching values.
+ * Generator keeps the buffer and the state of generation between calls, so that no intermediate objects are created for each value.
+ * <p>
+ * Generator is not thread safe - create one generator per thread with {@link RgxGen#newGenerator(RandomSource)}.
+ */
+public class Generator {
+    private final ProgramExecutor aExecutor;
+    private final String[]        aValues;
+    private final RandomSource    aRandom;
+    private final StringBuilder   aStringBuilder;
+
+    private XoroshiroRandomSource aIndexedRandom;
+
+    Generator(Program program, RandomSource random) {
+        aExecutor = new ProgramExecutor(program);
+        aValues = null;
+        aRandom = random;
+        aStringBuilder = new StringBuilder(program.getCapacity());
+    }
+
+    /**
+     * Create generator that picks values from the table of all values of the pattern.
+     *
+     * @param values all values of the pattern
+     * @param random random source to use for the generation
+     * @see com.github.curiousoddman.rgxgen.config.RgxGenOption#MATERIALIZATION_THRESHOLD
+     */
+    Generator(String[] values, RandomSource random) {
+        aExecutor = null;
+        aValues = values;
+        aRandom = random;
+        aStringBuilder = new StringBuilder();
+    }
+
+    /**
+     * Generate random string from the pattern.
+     * Generator created with the same seed produces the same values as {@link RgxGen#generate(RandomSource)},
+     * also when values are picked from the table of all values (see {@link com.github.curiousoddman.rgxgen.config.RgxGenOption#MATERIALIZATION_THRESHOLD}).
+     *
+     * @return matching random string
+     */
+    public String generate() {
+        generateIntoBuffer();
+        return aStringBuilder.toString();
+    }
+
+    /**
+     * Generate value {@code index} of the counter-based stream.
+     * The value depends only on the seed and the index, not on previously generated values.
+     *
+     * @param seed  seed of the stream
+     * @param index index of the value
+     * @return matching random string
+     * @see RgxGen#generate(long, long)
+     */
+    public String generate(long seed, long index) {
+        if (aIndexedRandom == null) {
+            aIndexedRandom = new XoroshiroRandomSource(seed, index);
+        } else {
+            aIndexedRandom.setSeed(seed, index);
+        }
+        aStringBuilder.setLength(0);
+        execute(aIndexedRandom, aStringBuilder);
+        return aStringBuilder.toString();
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the builder.
+     * No intermediate buffers are created during the generation.
+     *
+     * @param sb builder to append generated value to.
+     * @return length of generated value.
+     */
+    public int generateInto(StringBuilder sb) {
+        int start = sb.length();
+        execute(aRandom, sb);
+        return sb.length() - start;
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the appendable.
+     *
+     * @param appendable appendable to append generated value to.
+     * @return length of generated value.
+     * @throws IOException if appendable throws it
+     */
+    public int generateInto(Appendable appendable) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            return generateInto((StringBuilder) appendable);
+        }
+        generateIntoBuffer();
+        appendable.append(aStringBuilder);
+        return aStringBuilder.length();
+    }
+
+    /**
+     * Generate random string from the pattern and write it into the array.
+     * No intermediate buffers are created during the generation.
+     *
+     * @param buffer array to write generated value to.
+     * @param offset index in the array to write first character to.
+     * @return length of generated value.
+     * @throws IndexOutOfBoundsException when generated value does not fit into the array
+     */
+    public int generateInto(char[] buffer, int offset) {
+        generateIntoBuffer();
+        return Util.copyChars(aStringBuilder, buffer, offset);
+    }
+
+    /**
+     * Generate random string from the pattern encoded in UTF-8.
+     * Value is encoded directly from the generation buffer - no intermediate string is created.
+     *
+     * @return generated bytes.
+     */
+    public byte[] generateBytes() {
+        generateIntoBuffer();
+        return Util.toUtf8Bytes(aStringBuilder);
+    }
+
+    /**
+     * Generate random string from the pattern and put it encoded in UTF-8 into the buffer.
+     * Bytes are written at the position of the buffer, and the position is advanced.
+     * When value does not fit, the buffer is not changed.
+     *
+     * @param buffer heap or direct buffer to put generated bytes to.
+     * @return number of generated bytes.
+     * @throws java.nio.BufferOverflowException when generated value does not fit into the buffer
+     */
+    public int generateInto(ByteBuffer buffer) {
+        generateIntoBuffer();
+        return Util.encodeUtf8(aStringBuilder, buffer);
+    }
+
+    private void generateIntoBuffer() {
+        aStringBuilder.setLength(0);
+        execute(aRandom, aStringBuilder);
+    }
+
+    private void execute(RandomSource random, StringBuilder sb) {
+        if (aValues != null) {
+            sb.append(aValues[random.nextInt(aValues.length)]);
+            return;
+        }
+        aExecutor.reset();
+        aExecutor.execute(random, sb);
+    }
+}
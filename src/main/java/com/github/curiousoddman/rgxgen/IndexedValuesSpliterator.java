@@ -0,0 +1,88 @@
+package com.github.curiousoddman.rgxgen;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over values {@code [from, to)} of the counter-based stream.
+ * Each part of split spliterator uses its own generator, so parts can be consumed in parallel.
+ */
+class IndexedValuesSpliterator implements Spliterator<String> {
+    private final RgxGen aRgxGen;
+    private final long   aSeed;
+    private final long   aTo;
+
+    private long      aIndex;
+    private Generator aGenerator;
+
+    IndexedValuesSpliterator(RgxGen rgxGen, long seed, long from, long to) {
+        aRgxGen = rgxGen;
+        aSeed = seed;
+        aIndex = from;
+        aTo = to;
+    }
+
+    private Generator getGenerator() {
+        if (aGenerator == null) {
+            // Random source is not used - all values are generated by seed and index
+            aGenerator = aRgxGen.newGenerator(RandomSource.threadLocal());
+        }
+        return aGenerator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (aIndex >= aTo) {
+            return false;
+        }
+        action.accept(getGenerator().generate(aSeed, aIndex++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        Generator generator = getGenerator();
+        for (; aIndex < aTo; ++aIndex) {
+            action.accept(generator.generate(aSeed, aIndex));
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long middle = aIndex + (aTo - aIndex) / 2;
+        if (middle <= aIndex) {
+            return null;
+        }
+        Spliterator<String> prefix = new IndexedValuesSpliterator(aRgxGen, aSeed, aIndex, middle);
+        aIndex = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return aTo - aIndex;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+}
@@ -16,29 +16,53 @@ package com.github.curiousoddman.rgxgen;
    limitations under the License.
 /* **************************************************************************/
 
+import com.github.curiousoddman.rgxgen.compiler.CompiledGenerator;
+import com.github.curiousoddman.rgxgen.compiler.GeneratorCompiler;
+import com.github.curiousoddman.rgxgen.compiler.TieredGenerator;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
 import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.iterators.DfaUniqueIterator;
 import com.github.curiousoddman.rgxgen.iterators.StringIterator;
+import com.github.curiousoddman.rgxgen.iterators.UniqueCursor;
+import com.github.curiousoddman.rgxgen.iterators.UniqueRangeIterator;
+import com.github.curiousoddman.rgxgen.iterators.UniqueRanker;
+import com.github.curiousoddman.rgxgen.iterators.UniqueSampler;
 import com.github.curiousoddman.rgxgen.nodes.Node;
 import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.util.Util;
 import com.github.curiousoddman.rgxgen.visitors.GenerationVisitor;
 import com.github.curiousoddman.rgxgen.visitors.NotMatchingGenerationVisitor;
 import com.github.curiousoddman.rgxgen.visitors.UniqueGenerationVisitor;
 import com.github.curiousoddman.rgxgen.visitors.UniqueValuesCountingVisitor;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * String values generator based on regular expression pattern
  */
 public class RgxGen {
+    /**
+     * Buffer for the batch of values is not presized above this limit.
+     */
+    private static final int MAX_PRESIZED_BATCH_CAPACITY = 1 << 20;
 
     private final Node node;
 
+    private final TieredGenerator engine;
+
     private final RgxGenProperties properties;
 
+    private volatile UniqueRanker ranker;
+
     /**
      * Parse pattern using DefaultTreeBuilder.
      *
@@ -63,6 +87,7 @@ public class RgxGen {
         this.properties = properties;
         DefaultTreeBuilder defaultTreeBuilder = new DefaultTreeBuilder(pattern, this.properties);
         node = defaultTreeBuilder.get();
+        engine = new TieredGenerator(node, this.properties);
     }
 
     /**
@@ -88,6 +113,22 @@ public class RgxGen {
         return Stream.generate(this::generate);
     }
 
+    /**
+     * Creates stream of {@code count} values of the counter-based stream: value at position {@code i} is {@code generate(seed, i)}.
+     * The stream is parallel and splits by ranges of indices, so the values and their order do not depend on the number of threads.
+     *
+     * @param seed  seed of the stream
+     * @param count number of values
+     * @return parallel stream of generated strings
+     * @see RgxGen#generate(long, long)
+     */
+    public Stream<String> parallelStream(long seed, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        return StreamSupport.stream(new IndexedValuesSpliterator(this, seed, 0, count), true);
+    }
+
     /**
      * Creates iterator over unique values.
      *
@@ -99,6 +140,137 @@ public class RgxGen {
         return ugv.getUniqueStrings();
     }
 
+    /**
+     * Creates iterator over unique values without duplicates. Unlike {@link RgxGen#iterateUnique()}, each matching value is returned exactly once,
+     * e.g. pattern "(a{0,2}|b{0,2})" gives 5 values. Values are ordered by length and then lexicographically.
+     * Pattern is converted into minimal deterministic automaton, so memory does not grow with the number of returned values.
+     *
+     * @return iterator over unique values
+     * @throws UnsupportedOperationException if pattern has back references or lookarounds, or it is too large
+     */
+    public StringIterator iterateUniqueExact() {
+        return new DfaUniqueIterator(node, properties);
+    }
+
+    /**
+     * Creates iterator over unique values, that starts at the position. Position of the iterator can be saved and iteration
+     * can be resumed from it later: {@code iterateUnique(iterator.getPosition())}.
+     *
+     * @param from position of the first value
+     * @return iterator over unique values starting at the position
+     * @throws IllegalArgumentException if position is negative or greater than the number of unique values
+     * @see UniqueRangeIterator#getPosition()
+     */
+    public UniqueRangeIterator iterateUnique(BigInteger from) {
+        return new UniqueRangeIterator(getRanker(), from, null);
+    }
+
+    /**
+     * Creates iterator over one of {@code parts} equal slices of unique values. Slices do not overlap and together
+     * contain all unique values, so each of {@code parts} workers can enumerate its own slice.
+     * Position of the iterator can be saved and the slice can be resumed from it later with {@link UniqueRangeIterator#seek(BigInteger)}.
+     *
+     * @param part  index of the slice, from 0 to {@code parts - 1}
+     * @param parts number of slices
+     * @return iterator over unique values of the slice
+     * @throws IllegalArgumentException      if part is not in range {@code [0, parts)}
+     * @throws UnsupportedOperationException if pattern has infinite number of unique values
+     */
+    public UniqueRangeIterator iterateUnique(int part, int parts) {
+        if (parts <= 0 || part < 0 || part >= parts) {
+            throw new IllegalArgumentException("Invalid part " + part + " of " + parts);
+        }
+        UniqueRanker uniqueRanker = getRanker();
+        BigInteger count = uniqueRanker.getCount()
+                                       .orElseThrow(() -> new UnsupportedOperationException("Pattern has infinite number of unique values"));
+        BigInteger from = count.multiply(BigInteger.valueOf(part))
+                               .divide(BigInteger.valueOf(parts));
+        BigInteger to = count.multiply(BigInteger.valueOf(part + 1L))
+                             .divide(BigInteger.valueOf(parts));
+        return new UniqueRangeIterator(uniqueRanker, from, to);
+    }
+
+    /**
+     * Creates stream of unique values in the same order as {@link RgxGen#iterateUnique()}.
+     * When the number of unique values is finite, stream is sized and splits by ranges of positions of values,
+     * so parallel stream enumerates values without any coordination between threads.
+     * Only first {@link Long#MAX_VALUE} values can be streamed.
+     *
+     * @return sequential stream of unique values
+     * @see RgxGen#uniqueAt(long)
+     */
+    public Stream<String> streamUnique() {
+        UniqueRanker uniqueRanker = getRanker();
+        Optional<BigInteger> count = uniqueRanker.getCount();
+        if (!count.isPresent()) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateUnique(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+        long size = count.get()
+                         .min(BigInteger.valueOf(Long.MAX_VALUE))
+                         .longValue();
+        return StreamSupport.stream(new UniqueValuesSpliterator(uniqueRanker, 0, size), false);
+    }
+
+    /**
+     * Creates cursor over unique values.
+     * Cursor enumerates the same values as {@link RgxGen#iterateUnique()}, but it rewrites only the changed part of the value in a single buffer,
+     * instead of building each value from the values of its parts.
+     *
+     * @return cursor over unique values
+     */
+    public UniqueCursor uniqueCursor() {
+        return new UniqueCursor(node, properties);
+    }
+
+    /**
+     * Get unique value at the position - the same value that {@link RgxGen#iterateUnique()} returns after skipping {@code index} values.
+     * Value is found directly from the counts of unique values of the pattern parts, without iterating preceding values.
+     *
+     * @param index position of the value
+     * @return unique value
+     * @throws IndexOutOfBoundsException if index is negative or there are not that many unique values
+     * @see UniqueRanker
+     */
+    public String uniqueAt(long index) {
+        return getRanker().get(index);
+    }
+
+    /**
+     * Get unique value at the position - the same value that {@link RgxGen#iterateUnique()} returns after skipping {@code index} values.
+     * Value is found directly from the counts of unique values of the pattern parts, without iterating preceding values.
+     *
+     * @param index position of the value
+     * @return unique value
+     * @throws IndexOutOfBoundsException if index is negative or there are not that many unique values
+     * @see UniqueRanker
+     */
+    public String uniqueAt(BigInteger index) {
+        return getRanker().get(index);
+    }
+
+    /**
+     * Creates iterator over unique values in pseudo-random order. Each value is returned once, without remembering the returned values,
+     * so sampling does not slow down, when most of the values were returned.
+     * Samplers with the same seed return values in the same order and can be split by ranges of positions.
+     *
+     * @param seed seed that defines the order of values
+     * @return sampler of unique values
+     * @throws UnsupportedOperationException if pattern has infinite number of unique values
+     * @see UniqueSampler#shard(long, long)
+     */
+    public UniqueSampler sampleUnique(long seed) {
+        return new UniqueSampler(getRanker(), seed);
+    }
+
+    private UniqueRanker getRanker() {
+        UniqueRanker result = ranker;
+        if (result == null) {
+            result = new UniqueRanker(node, properties);
+            ranker = result;
+        }
+        return result;
+    }
+
     /**
      * Generate random string from the pattern.
      *
@@ -116,12 +288,264 @@ public class RgxGen {
      * @return generated string.
      */
     public String generate(Random random) {
-        GenerationVisitor gv = GenerationVisitor.builder()
-                                                .withRandom(random)
-                                                .withProperties(properties)
-                                                .get();
-        node.visit(gv);
-        return gv.getString();
+        return generate(RandomSource.of(random));
+    }
+
+    /**
+     * Generate random string from the pattern.
+     * Random source initialized with same seed will produce same results.
+     *
+     * @param random random source to use for the generation.
+     * @return generated string.
+     */
+    public String generate(RandomSource random) {
+        return engine.generate(random);
+    }
+
+    /**
+     * Generate value {@code index} of the counter-based stream with the {@code seed}.
+     * The value depends only on the seed and the index, so it is the same regardless of thread, machine or the order of calls.
+     *
+     * @param seed  seed of the stream
+     * @param index index of the value
+     * @return generated string.
+     * @see RandomSource#forIndex(long, long)
+     */
+    public String generate(long seed, long index) {
+        return generate(RandomSource.forIndex(seed, index));
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the builder.
+     *
+     * @param random random to use for the generation.
+     * @param sb     builder to append generated value to.
+     * @return length of generated value.
+     * @see RgxGen#generateInto(RandomSource, StringBuilder)
+     */
+    public int generateInto(Random random, StringBuilder sb) {
+        return generateInto(RandomSource.of(random), sb);
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the builder.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @param sb     builder to append generated value to.
+     * @return length of generated value.
+     */
+    public int generateInto(RandomSource random, StringBuilder sb) {
+        int start = sb.length();
+        engine.generateInto(random, sb);
+        return sb.length() - start;
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the appendable.
+     *
+     * @param random     random to use for the generation.
+     * @param appendable appendable to append generated value to.
+     * @return length of generated value.
+     * @throws IOException if appendable throws it
+     * @see RgxGen#generateInto(RandomSource, Appendable)
+     */
+    public int generateInto(Random random, Appendable appendable) throws IOException {
+        return generateInto(RandomSource.of(random), appendable);
+    }
+
+    /**
+     * Generate random string from the pattern and append it to the appendable.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param random     random source to use for the generation.
+     * @param appendable appendable to append generated value to.
+     * @return length of generated value.
+     * @throws IOException if appendable throws it
+     */
+    public int generateInto(RandomSource random, Appendable appendable) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            return generateInto(random, (StringBuilder) appendable);
+        }
+        StringBuilder sb = new StringBuilder(engine.getCapacity());
+        engine.generateInto(random, sb);
+        appendable.append(sb);
+        return sb.length();
+    }
+
+    /**
+     * Generate random string from the pattern and write it into the array.
+     *
+     * @param random random to use for the generation.
+     * @param buffer array to write generated value to.
+     * @param offset index in the array to write first character to.
+     * @return length of generated value.
+     * @throws IndexOutOfBoundsException when generated value does not fit into the array
+     * @see RgxGen#generateInto(RandomSource, char[], int)
+     */
+    public int generateInto(Random random, char[] buffer, int offset) {
+        return generateInto(RandomSource.of(random), buffer, offset);
+    }
+
+    /**
+     * Generate random string from the pattern and write it into the array.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @param buffer array to write generated value to.
+     * @param offset index in the array to write first character to.
+     * @return length of generated value.
+     * @throws IndexOutOfBoundsException when generated value does not fit into the array
+     */
+    public int generateInto(RandomSource random, char[] buffer, int offset) {
+        StringBuilder sb = new StringBuilder(engine.getCapacity());
+        engine.generateInto(random, sb);
+        return Util.copyChars(sb, buffer, offset);
+    }
+
+    /**
+     * Generate random string from the pattern encoded in UTF-8.
+     *
+     * @param random random to use for the generation.
+     * @return generated bytes.
+     * @see RgxGen#generateBytes(RandomSource)
+     */
+    public byte[] generateBytes(Random random) {
+        return generateBytes(RandomSource.of(random));
+    }
+
+    /**
+     * Generate random string from the pattern encoded in UTF-8.
+     * Value is encoded directly from the generation buffer - no intermediate string is created.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @return generated bytes.
+     */
+    public byte[] generateBytes(RandomSource random) {
+        StringBuilder sb = new StringBuilder(engine.getCapacity());
+        engine.generateInto(random, sb);
+        return Util.toUtf8Bytes(sb);
+    }
+
+    /**
+     * Generate random string from the pattern and put it encoded in UTF-8 into the buffer.
+     *
+     * @param random random to use for the generation.
+     * @param buffer heap or direct buffer to put generated bytes to.
+     * @return number of generated bytes.
+     * @throws java.nio.BufferOverflowException when generated value does not fit into the buffer
+     * @see RgxGen#generateInto(RandomSource, ByteBuffer)
+     */
+    public int generateInto(Random random, ByteBuffer buffer) {
+        return generateInto(RandomSource.of(random), buffer);
+    }
+
+    /**
+     * Generate random string from the pattern and put it encoded in UTF-8 into the buffer.
+     * Bytes are written at the position of the buffer, and the position is advanced.
+     * When value does not fit, the buffer is not changed.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @param buffer heap or direct buffer to put generated bytes to.
+     * @return number of generated bytes.
+     * @throws java.nio.BufferOverflowException when generated value does not fit into the buffer
+     */
+    public int generateInto(RandomSource random, ByteBuffer buffer) {
+        StringBuilder sb = new StringBuilder(engine.getCapacity());
+        engine.generateInto(random, sb);
+        return Util.encodeUtf8(sb, buffer);
+    }
+
+    /**
+     * Generate batch of random strings from the pattern.
+     *
+     * @param count  number of values to generate
+     * @param random random to use for the generation.
+     * @return batch of generated values
+     * @see RgxGen#generateBatch(int, RandomSource)
+     */
+    public StringArena generateBatch(int count, Random random) {
+        return generateBatch(count, RandomSource.of(random));
+    }
+
+    /**
+     * Generate batch of random strings from the pattern.
+     * Values are stored in a single array, which takes several times less memory than the same number of strings.
+     * Random source initialized with same seed will produce same values as consecutive calls to {@link RgxGen#generate(RandomSource)}.
+     *
+     * @param count  number of values to generate
+     * @param random random source to use for the generation.
+     * @return batch of generated values
+     * @throws IllegalArgumentException if count is negative
+     */
+    public StringArena generateBatch(int count, RandomSource random) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        int[] offsets = new int[count + 1];
+        StringBuilder sb = new StringBuilder((int) Math.min(MAX_PRESIZED_BATCH_CAPACITY, (long) count * engine.getCapacity()));
+        for (int i = 0; i < count; i++) {
+            engine.generateInto(random, sb);
+            offsets[i + 1] = sb.length();
+        }
+        return new StringArena(sb, offsets);
+    }
+
+    /**
+     * Create reusable generator of matching values.
+     *
+     * @return new generator
+     * @see RgxGen#newGenerator(RandomSource)
+     */
+    public Generator newGenerator() {
+        return newGenerator(new Random());
+    }
+
+    /**
+     * Create reusable generator of matching values.
+     *
+     * @param random random to use for the generation.
+     * @return new generator
+     * @see RgxGen#newGenerator(RandomSource)
+     */
+    public Generator newGenerator(Random random) {
+        return newGenerator(RandomSource.of(random));
+    }
+
+    /**
+     * Create reusable generator of matching values.
+     * Generator reuses its buffers between calls, so it is preferred over {@link RgxGen#generate(RandomSource)} when many values are generated.
+     * Generator produces the same values for the same random as {@link RgxGen#generate(RandomSource)},
+     * including patterns that are materialized (see {@link RgxGenOption#MATERIALIZATION_THRESHOLD}).
+     * Generator is not thread safe - use one generator per thread.
+     *
+     * @param random random source to use for the generation.
+     * @return new generator
+     */
+    public Generator newGenerator(RandomSource random) {
+        String[] values = engine.getMaterializedValues();
+        return values == null ? new Generator(engine.getProgram(), random) : new Generator(values, random);
+    }
+
+    /**
+     * Compile the pattern into a dedicated class with straight-line generation code.
+     * Compilation is expensive, so it is worth only for patterns that generate a lot of values.
+     * When java compiler is not available at runtime, returned generator interprets the pattern.
+     * <p>
+     * Returned generator is thread safe and produces the same values for the same random as {@link RgxGen#generate(RandomSource)}.
+     * When the pattern is materialized (see {@link RgxGenOption#MATERIALIZATION_THRESHOLD}), returned generator picks values from the same table.
+     *
+     * @return compiled generator
+     * @see GeneratorCompiler
+     */
+    public CompiledGenerator compileGenerator() {
+        if (engine.getMaterializedValues() != null) {
+            // Values are picked from the table - there is nothing to compile
+            return engine;
+        }
+        return GeneratorCompiler.compile(engine.getOptimizedNode(), properties);
     }
 
     /**
@@ -141,10 +565,107 @@ public class RgxGen {
      * @return generated string.
      */
     public String generateNotMatching(Random random) {
+        return generateNotMatching(RandomSource.of(random));
+    }
+
+    /**
+     * Generate random string that does not match a pattern.
+     * Random source initialized with same seed will produce same results.
+     *
+     * @param random random source to use for the generation.
+     * @return generated string.
+     */
+    public String generateNotMatching(RandomSource random) {
+        return visitNotMatching(random).getString();
+    }
+
+    /**
+     * Generate random string that does not match a pattern and append it to the builder.
+     *
+     * @param random random to use for the generation.
+     * @param sb     builder to append generated value to.
+     * @return length of generated value.
+     * @see RgxGen#generateNotMatchingInto(RandomSource, StringBuilder)
+     */
+    public int generateNotMatchingInto(Random random, StringBuilder sb) {
+        return generateNotMatchingInto(RandomSource.of(random), sb);
+    }
+
+    /**
+     * Generate random string that does not match a pattern and append it to the builder.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generateNotMatching(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @param sb     builder to append generated value to.
+     * @return length of generated value.
+     */
+    public int generateNotMatchingInto(RandomSource random, StringBuilder sb) {
+        StringBuilder generated = visitNotMatching(random).getStringBuilder();
+        sb.append(generated);
+        return generated.length();
+    }
+
+    /**
+     * Generate random string that does not match a pattern and append it to the appendable.
+     *
+     * @param random     random to use for the generation.
+     * @param appendable appendable to append generated value to.
+     * @return length of generated value.
+     * @throws IOException if appendable throws it
+     * @see RgxGen#generateNotMatchingInto(RandomSource, Appendable)
+     */
+    public int generateNotMatchingInto(Random random, Appendable appendable) throws IOException {
+        return generateNotMatchingInto(RandomSource.of(random), appendable);
+    }
+
+    /**
+     * Generate random string that does not match a pattern and append it to the appendable.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generateNotMatching(RandomSource)}.
+     *
+     * @param random     random source to use for the generation.
+     * @param appendable appendable to append generated value to.
+     * @return length of generated value.
+     * @throws IOException if appendable throws it
+     */
+    public int generateNotMatchingInto(RandomSource random, Appendable appendable) throws IOException {
+        StringBuilder generated = visitNotMatching(random).getStringBuilder();
+        appendable.append(generated);
+        return generated.length();
+    }
+
+    /**
+     * Generate random string that does not match a pattern and write it into the array.
+     *
+     * @param random random to use for the generation.
+     * @param buffer array to write generated value to.
+     * @param offset index in the array to write first character to.
+     * @return length of generated value.
+     * @throws IndexOutOfBoundsException when generated value does not fit into the array
+     * @see RgxGen#generateNotMatchingInto(RandomSource, char[], int)
+     */
+    public int generateNotMatchingInto(Random random, char[] buffer, int offset) {
+        return generateNotMatchingInto(RandomSource.of(random), buffer, offset);
+    }
+
+    /**
+     * Generate random string that does not match a pattern and write it into the array.
+     * Random source initialized with same seed will produce same results as {@link RgxGen#generateNotMatching(RandomSource)}.
+     *
+     * @param random random source to use for the generation.
+     * @param buffer array to write generated value to.
+     * @param offset index in the array to write first character to.
+     * @return length of generated value.
+     * @throws IndexOutOfBoundsException when generated value does not fit into the array
+     */
+    public int generateNotMatchingInto(RandomSource random, char[] buffer, int offset) {
+        return Util.copyChars(visitNotMatching(random).getStringBuilder(), buffer, offset);
+    }
+
+    private GenerationVisitor visitNotMatching(RandomSource random) {
         GenerationVisitor nmgv = NotMatchingGenerationVisitor.builder()
                                                              .withRandom(random)
                                                              .get();
         node.visit(nmgv);
-        return nmgv.getString();
+        return nmgv;
     }
 }
@@ -0,0 +1,237 @@
+package com.github.curiousoddman.rgxgen;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact batch of generated values.
+ * All values are stored one after another in a single array, and their boundaries are stored in a table of offsets,
+ * so there is no header of a string object and of its array for each value.
+ * Values that contain only ASCII characters are stored in a byte array.
+ * <p>
+ * Values are accessed as {@link CharSequence} views of the arena, or copied into strings with {@link #getString(int)} and {@link #toStrings()}.
+ * Arena is immutable and can be shared between threads.
+ *
+ * @see RgxGen#generateBatch(int, com.github.curiousoddman.rgxgen.random.RandomSource)
+ */
+public final class StringArena implements Iterable<CharSequence> {
+    private final char[] aChars;
+    private final byte[] aBytes;
+    private final int[]  aOffsets;
+
+    /**
+     * Create arena from the concatenated values.
+     *
+     * @param values  concatenated values
+     * @param offsets start of each value, followed by the end of the last value
+     */
+    StringArena(StringBuilder values, int[] offsets) {
+        aOffsets = offsets;
+        int length = values.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = values.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            aChars = null;
+            aBytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                aBytes[i] = (byte) values.charAt(i);
+            }
+        } else {
+            aChars = new char[length];
+            aBytes = null;
+            values.getChars(0, length, aChars, 0);
+        }
+    }
+
+    /**
+     * @return number of values in the arena
+     */
+    public int size() {
+        return aOffsets.length - 1;
+    }
+
+    /**
+     * @return total number of characters in all values
+     */
+    public int totalLength() {
+        return aOffsets[aOffsets.length - 1];
+    }
+
+    /**
+     * @return true if all values contain only ASCII characters and are stored one byte per character
+     */
+    public boolean isAscii() {
+        return aBytes != null;
+    }
+
+    /**
+     * @param index index of the value
+     * @return length of the value
+     * @throws IndexOutOfBoundsException when index is out of range
+     */
+    public int length(int index) {
+        checkIndex(index);
+        return aOffsets[index + 1] - aOffsets[index];
+    }
+
+    /**
+     * Get view of the value. Characters are not copied - view reads them from the arena.
+     *
+     * @param index index of the value
+     * @return view of the value
+     * @throws IndexOutOfBoundsException when index is out of range
+     */
+    public CharSequence get(int index) {
+        checkIndex(index);
+        return new View(aOffsets[index], aOffsets[index + 1]);
+    }
+
+    /**
+     * Copy the value into a string.
+     *
+     * @param index index of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException when index is out of range
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        return toString(aOffsets[index], aOffsets[index + 1]);
+    }
+
+    /**
+     * Copy all values into strings.
+     *
+     * @return list of values
+     */
+    public List<String> toStrings() {
+        List<String> strings = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            strings.add(getString(i));
+        }
+        return strings;
+    }
+
+    /**
+     * Get list of views of the values. Views are created on access.
+     *
+     * @return list of values
+     */
+    public List<CharSequence> asList() {
+        return new AbstractList<CharSequence>() {
+            @Override
+            public CharSequence get(int index) {
+                return StringArena.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return StringArena.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new Iterator<CharSequence>() {
+            private int aIndex;
+
+            @Override
+            public boolean hasNext() {
+                return aIndex < size();
+            }
+
+            @Override
+            public CharSequence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(aIndex++);
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range [0, " + size() + ')');
+        }
+    }
+
+    private char charAt(int position) {
+        return aBytes == null ? aChars[position] : (char) aBytes[position];
+    }
+
+    @SuppressWarnings("deprecation")
+    private String toString(int start, int end) {
+        // Deprecated constructor copies ASCII bytes without decoding
+        return aBytes == null ? new String(aChars, start, end - start) : new String(aBytes, 0, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return "StringArena{" +
+                "size=" + size() +
+                ", totalLength=" + totalLength() +
+                ", ascii=" + isAscii() +
+                '}';
+    }
+
+    /**
+     * View of the characters of the arena between start (inclusive) and end (exclusive).
+     */
+    private final class View implements CharSequence {
+        private final int aStart;
+        private final int aEnd;
+
+        private View(int start, int end) {
+            aStart = start;
+            aEnd = end;
+        }
+
+        @Override
+        public int length() {
+            return aEnd - aStart;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of range [0, " + length() + ')');
+            }
+            return StringArena.this.charAt(aStart + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > length()) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of range [0, " + length() + ')');
+            }
+            return new View(aStart + start, aStart + end);
+        }
+
+        @Override
+        public String toString() {
+            return StringArena.this.toString(aStart, aEnd);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.curiousoddman.rgxgen;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.iterators.UniqueRanker;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over unique values at positions {@code [from, to)}. Each value is found by its position,
+ * so split parts share nothing but the immutable ranker and can be consumed in parallel.
+ */
+class UniqueValuesSpliterator implements Spliterator<String> {
+    private final UniqueRanker aRanker;
+    private final long         aTo;
+
+    private long aIndex;
+
+    UniqueValuesSpliterator(UniqueRanker ranker, long from, long to) {
+        aRanker = ranker;
+        aIndex = from;
+        aTo = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (aIndex >= aTo) {
+            return false;
+        }
+        action.accept(aRanker.get(aIndex++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        StringBuilder sb = new StringBuilder();
+        for (; aIndex < aTo; ++aIndex) {
+            sb.setLength(0);
+            aRanker.appendTo(aIndex, sb);
+            action.accept(sb.toString());
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long middle = aIndex + (aTo - aIndex) / 2;
+        if (middle <= aIndex) {
+            return null;
+        }
+        Spliterator<String> prefix = new UniqueValuesSpliterator(aRanker, aIndex, middle);
+        aIndex = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return aTo - aIndex;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+}
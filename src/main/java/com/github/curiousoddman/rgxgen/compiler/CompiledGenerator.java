@@ -0,0 +1,47 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+
+/**
+ * Generator of matching values for a single pattern.
+ * Implementations are stateless and can be shared between threads.
+ *
+ * @see GeneratorCompiler
+ */
+public interface CompiledGenerator {
+    /**
+     * Generate random string from the pattern and append it to the builder.
+     *
+     * @param random random to use for the generation
+     * @param sb     builder to append generated value to
+     */
+    void generateInto(RandomSource random, StringBuilder sb);
+
+    /**
+     * Generate random string from the pattern.
+     *
+     * @param random random to use for the generation
+     * @return generated string
+     */
+    default String generate(RandomSource random) {
+        StringBuilder sb = new StringBuilder();
+        generateInto(random, sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.program.GroupReferencesCollector;
+import com.github.curiousoddman.rgxgen.program.Program;
+import com.github.curiousoddman.rgxgen.program.ProgramCompiler;
+import com.github.curiousoddman.rgxgen.visitors.LengthAnalysisVisitor;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compiles nodes tree into a dedicated class that implements {@link CompiledGenerator}.
+ * <p>
+ * Java source of the class is generated for the tree and compiled in memory with {@code javax.tools}.
+ * When java compiler is not available (e.g. application runs on JRE), or the tree cannot be compiled,
+ * the returned generator interprets compiled {@link Program} instead.
+ * <p>
+ * Compilation takes tens of milliseconds, so it pays off only for patterns that generate a lot of values.
+ */
+public final class GeneratorCompiler {
+    private static final String        PACKAGE_NAME = "com.github.curiousoddman.rgxgen.compiler.generated";
+    private static final AtomicInteger CLASS_INDEX  = new AtomicInteger();
+    private static final Logger        LOGGER       = Logger.getLogger(GeneratorCompiler.class.getName());
+
+    private GeneratorCompiler() {
+    }
+
+    /**
+     * @return true if java compiler is available in the current runtime
+     */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compile the tree into a generator.
+     * Generator produces the same values for the same random as {@link com.github.curiousoddman.rgxgen.visitors.GenerationVisitor}.
+     * <p>
+     * When java compiler is not available, or it cannot compile the source (e.g. the library is not accessible on the class path),
+     * the reason is logged and interpreting generator is returned.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     * @return compiled generator or interpreting generator, if tree cannot be compiled
+     * @throws IllegalStateException if compiled class cannot be loaded - this is a bug of the generated source
+     */
+    public static CompiledGenerator compile(Node node, RgxGenProperties properties) {
+        Program program = ProgramCompiler.compile(node, properties);
+        try {
+            CompiledGenerator compiled = compileToBytecode(node, properties, program);
+            if (compiled != null) {
+                return compiled;
+            }
+        } catch (CompilationException e) {
+            LOGGER.log(Level.WARNING, "Pattern is interpreted, because generated source could not be compiled", e);
+        }
+        return new InterpretedGenerator(program);
+    }
+
+    /**
+     * Compile the tree into bytecode.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     * @param program    program of the tree
+     * @return compiled generator or null, if java compiler is not available or tree cannot be compiled by design
+     * @throws CompilationException if java compiler reported errors
+     */
+    static CompiledGenerator compileToBytecode(Node node, RgxGenProperties properties, Program program) throws CompilationException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+        GroupReferencesCollector collector = new GroupReferencesCollector();
+        node.visit(collector);
+        if (collector.hasNotSymbols()) {
+            // Not matching generation is done by visitors
+            return null;
+        }
+
+        JavaSourceBuilder sourceBuilder = new JavaSourceBuilder(properties, collector.getReferencedGroups());
+        String className = "Pattern" + CLASS_INDEX.incrementAndGet();
+        String source = sourceBuilder.build(PACKAGE_NAME, className, node, program.getCapacity());
+
+        Map<String, byte[]> classes;
+        List<String> options = Arrays.asList("-classpath", getClassPath(), "-g:none", "-proc:none", "-nowarn");
+        JavaFileObject sourceFile = new SourceFile(PACKAGE_NAME + '.' + className, source);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        // Standard file manager keeps class path jars open until it is closed
+        try (InMemoryFileManager fileManager = new InMemoryFileManager(compiler.getStandardFileManager(null, null, null))) {
+            Boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(sourceFile)).call();
+            if (!Boolean.TRUE.equals(success)) {
+                throw new CompilationException(className, diagnostics.getDiagnostics());
+            }
+            classes = fileManager.getClasses();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Class<?> generatedClass = new GeneratedClassLoader(classes).loadClass(PACKAGE_NAME + '.' + className);
+            return (CompiledGenerator) generatedClass.getConstructor(Object[].class)
+                                                     .newInstance((Object) sourceBuilder.getConstants());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Compiled class " + className + " cannot be instantiated", e);
+        }
+    }
+
+    private static String getClassPath() {
+        String classPath = System.getProperty("java.class.path", "");
+        try {
+            // Library might be loaded by a class loader that is not on the class path
+            File location = new File(CompiledGenerator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location.getPath() + File.pathSeparator + classPath;
+        } catch (Exception e) {
+            return classPath;
+        }
+    }
+
+    /**
+     * Java compiler reported errors for the generated source.
+     */
+    static final class CompilationException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        CompilationException(String className, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            super(describe(className, diagnostics));
+        }
+
+        private static String describe(String className, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            StringBuilder sb = new StringBuilder("Compilation of ").append(className).append(" failed:");
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                sb.append(System.lineSeparator())
+                  .append(diagnostic.getKind())
+                  .append(" at line ")
+                  .append(diagnostic.getLineNumber())
+                  .append(": ")
+                  .append(diagnostic.getMessage(Locale.ROOT));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String aSource;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            aSource = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return aSource;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream aBytes = new ByteArrayOutputStream();
+
+        ClassFile(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return aBytes;
+        }
+
+        byte[] getBytes() {
+            return aBytes.toByteArray();
+        }
+    }
+
+    private static final class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, ClassFile> aClasses = new HashMap<>();
+
+        InMemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            ClassFile classFile = new ClassFile(className);
+            aClasses.put(className, classFile);
+            return classFile;
+        }
+
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> classes = new HashMap<>();
+            for (Map.Entry<String, ClassFile> entry : aClasses.entrySet()) {
+                classes.put(entry.getKey(), entry.getValue().getBytes());
+            }
+            return classes;
+        }
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> aClasses;
+
+        GeneratedClassLoader(Map<String, byte[]> classes) {
+            super(CompiledGenerator.class.getClassLoader());
+            aClasses = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = aClasses.get(name);
+            if (bytes == null) {
+                return super.findClass(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.program.Program;
+import com.github.curiousoddman.rgxgen.program.ProgramExecutor;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+
+/**
+ * Fallback generator that interprets the program, when bytecode cannot be generated.
+ */
+class InterpretedGenerator implements CompiledGenerator {
+    private final Program                      aProgram;
+    // Executor keeps state of the generation, so it cannot be shared between threads
+    private final ThreadLocal<ProgramExecutor> aExecutors;
+
+    InterpretedGenerator(Program program) {
+        aProgram = program;
+        aExecutors = ThreadLocal.withInitial(() -> new ProgramExecutor(program));
+    }
+
+    @Override
+    public void generateInto(RandomSource random, StringBuilder sb) {
+        ProgramExecutor executor = aExecutors.get();
+        executor.reset();
+        executor.execute(random, sb);
+    }
+
+    @Override
+    public String generate(RandomSource random) {
+        StringBuilder sb = new StringBuilder(aProgram.getCapacity());
+        generateInto(random, sb);
+        return sb.toString();
+    }
+}
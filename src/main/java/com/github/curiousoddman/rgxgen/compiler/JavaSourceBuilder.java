@@ -0,0 +1,313 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Generates java source of {@link CompiledGenerator} for the nodes tree.
+ * Generated code consumes random values in exactly the same order as {@link com.github.curiousoddman.rgxgen.visitors.GenerationVisitor}.
+ * <p>
+ * Code is straight-line where possible: literals are inlined, small symbol sets are inlined as char tables,
+ * short fixed repetitions are unrolled. Large blocks are moved to separate methods to stay within JVM method size limit.
+ */
+class JavaSourceBuilder implements NodeVisitor {
+    private static final int MAX_BLOCK_LENGTH     = 2000;
+    private static final int MAX_UNROLLED_REPEATS = 8;
+    private static final int MAX_UNROLLED_LENGTH  = 200;
+    private static final int MAX_INLINED_LITERAL  = 1000;
+
+    private final List<Object>  aConstants   = new ArrayList<>();
+    private final StringBuilder aFields      = new StringBuilder();
+    private final StringBuilder aAssignments = new StringBuilder();
+    private final StringBuilder aMethods     = new StringBuilder();
+    private final boolean       aCaseInsensitive;
+    private final int           aInfiniteRepetition;
+    private final int           aFlattenLimit;
+    private final int[]         aGroupSlots;
+    private final int           aSlotsCount;
+
+    private int    aNextId;
+    private String aCode;
+
+    JavaSourceBuilder(RgxGenProperties properties, BitSet referencedGroups) {
+        aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+        aInfiniteRepetition = RgxGenOption.INFINITE_PATTERN_REPETITION.getFromProperties(properties);
+        aFlattenLimit = RgxGenOption.SYMBOL_SET_FLATTEN_LIMIT.getFromProperties(properties);
+        aGroupSlots = new int[referencedGroups.length()];
+        int slot = 0;
+        for (int i = 0; i < aGroupSlots.length; i++) {
+            aGroupSlots[i] = referencedGroups.get(i) ? slot++ : -1;
+        }
+        aSlotsCount = slot;
+    }
+
+    private String generate(Node node) {
+        node.visit(this);
+        return aCode;
+    }
+
+    private int nextId() {
+        return aNextId++;
+    }
+
+    private String addConstant(String type, Object value) {
+        String name = "c" + aConstants.size();
+        aFields.append("    private final ").append(type).append(' ').append(name).append(";\n");
+        aAssignments.append("        ").append(name).append(" = (").append(type).append(") constants[").append(aConstants.size()).append("];\n");
+        aConstants.add(value);
+        return name;
+    }
+
+    /**
+     * Move code into a separate method, if it is too long.
+     *
+     * @param code block of code
+     * @return the same code or call of the method
+     */
+    private String extractIfLong(String code) {
+        if (code.length() <= MAX_BLOCK_LENGTH) {
+            return code;
+        }
+        String name = "m" + nextId();
+        aMethods.append("    private void ").append(name).append("(RandomSource random, StringBuilder sb, int[] g) {\n")
+                .append(code)
+                .append("    }\n\n");
+        return name + "(random, sb, g);\n";
+    }
+
+    private String repeatCount(int min, int max) {
+        return min >= max ? String.valueOf(min) : min + " + random.nextInt(" + (max + 1 - min) + ')';
+    }
+
+    private String symbolExpression(SymbolSet node) {
+        SymbolSetIndexer indexer = aCaseInsensitive ? node.getCaseInsensitiveSymbolSetIndexer() : node.getSymbolSetIndexer();
+        int size = indexer.size();
+        if (size <= aFlattenLimit) {
+            char[] chars = indexer.getAll();
+            boolean contiguous = true;
+            for (int i = 1; i < chars.length && contiguous; i++) {
+                contiguous = chars[i] == chars[i - 1] + 1;
+            }
+            if (contiguous && chars.length > 0) {
+                return "(char) (" + (int) chars[0] + " + random.nextInt(" + size + "))";
+            }
+            return addConstant("char[]", chars) + "[random.nextInt(" + size + ")]";
+        }
+        return addConstant("SymbolSetIndexer", indexer) + ".get(random.nextInt(" + size + "))";
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        aCode = "sb.append(" + symbolExpression(node) + ");\n";
+    }
+
+    @Override
+    public void visit(Choice node) {
+        Node[] nodes = node.getNodes();
+        if (!aCaseInsensitive && isLiteralChoice(nodes)) {
+            String[] values = new String[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                values[i] = ((FinalSymbol) nodes[i]).getValue();
+            }
+            aCode = "sb.append(" + addConstant("String[]", values) + "[random.nextInt(" + nodes.length + ")]);\n";
+            return;
+        }
+        StringBuilder code = new StringBuilder();
+        code.append("switch (random.nextInt(").append(nodes.length).append(")) {\n");
+        for (int i = 0; i < nodes.length; i++) {
+            code.append("case ").append(i).append(": {\n")
+                .append(extractIfLong(generate(nodes[i])))
+                .append("break;\n}\n");
+        }
+        code.append("}\n");
+        aCode = code.toString();
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        String value = node.getValue();
+        if (value.isEmpty()) {
+            aCode = "";
+            return;
+        }
+        String literal = value.length() > MAX_INLINED_LITERAL ? addConstant("String", value) : quote(value);
+        aCode = aCaseInsensitive && hasCasedLetters(value)
+                ? "sb.append(Util.randomlyChangeCase(random, " + literal + "));\n"
+                : "sb.append(" + literal + ");\n";
+    }
+
+    private static boolean isLiteralChoice(Node[] nodes) {
+        for (Node n : nodes) {
+            if (!(n instanceof FinalSymbol)) {
+                return false;
+            }
+        }
+        return nodes.length > 0;
+    }
+
+    private static boolean hasCasedLetters(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isUpperCase(c) || Character.isLowerCase(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c >= ' ' && c < 0x7F) {
+                sb.append(c);
+            } else if (c < ' ') {
+                // Unicode escapes of line terminators are not allowed in string literals
+                sb.append(String.format("\\%03o", (int) c));
+            } else {
+                sb.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        int min = node.getMin();
+        int max = node.getMax() == -1 ? aInfiniteRepetition : node.getMax();
+        int id = nextId();
+        String count = repeatCount(min, max);
+        if (node.getNode() instanceof SymbolSet) {
+            String symbol = symbolExpression((SymbolSet) node.getNode());
+            aCode = "for (int i" + id + " = 0, n" + id + " = " + count + "; i" + id + " < n" + id + "; i" + id + "++) {\n"
+                    + "sb.append(" + symbol + ");\n"
+                    + "}\n";
+            return;
+        }
+
+        String body = extractIfLong(generate(node.getNode()));
+        if (min >= max && min <= MAX_UNROLLED_REPEATS && body.length() * min <= MAX_UNROLLED_LENGTH * MAX_UNROLLED_REPEATS) {
+            StringBuilder code = new StringBuilder();
+            for (int i = 0; i < min; i++) {
+                code.append("{\n").append(body).append("}\n");
+            }
+            aCode = code.toString();
+            return;
+        }
+        aCode = "for (int i" + id + " = 0, n" + id + " = " + count + "; i" + id + " < n" + id + "; i" + id + "++) {\n"
+                + body
+                + "}\n";
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        StringBuilder code = new StringBuilder();
+        StringBuilder chunk = new StringBuilder();
+        for (Node n : node.getNodes()) {
+            chunk.append(generate(n));
+            if (chunk.length() > MAX_BLOCK_LENGTH) {
+                code.append(extractIfLong(chunk.toString()));
+                chunk.setLength(0);
+            }
+        }
+        aCode = code.append(chunk).toString();
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        throw new UnsupportedOperationException("Not symbols cannot be compiled");
+    }
+
+    private int slotOf(int groupIndex) {
+        return groupIndex < aGroupSlots.length ? aGroupSlots[groupIndex] : -1;
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        int slot = slotOf(node.getIndex()) * 2;
+        // Start is kept + 1, so that 0 means that group is not captured
+        aCode = "if (g[" + slot + "] != 0) {\n"
+                + "sb.append(sb, g[" + slot + "] - 1, g[" + (slot + 1) + "]);\n"
+                + "}\n";
+    }
+
+    @Override
+    public void visit(Group node) {
+        int slot = slotOf(node.getIndex());
+        String body = extractIfLong(generate(node.getNode()));
+        if (slot == -1) {
+            aCode = body;
+            return;
+        }
+        int id = nextId();
+        aCode = "int s" + id + " = sb.length();\n"
+                + body
+                + "g[" + slot * 2 + "] = s" + id + " + 1;\n"
+                + "g[" + (slot * 2 + 1) + "] = sb.length();\n";
+    }
+
+    /**
+     * Generate source of the class.
+     *
+     * @param packageName package of the class
+     * @param className   simple name of the class
+     * @param node        root of the tree
+     * @param capacity    initial capacity for the builder
+     * @return java source code
+     */
+    String build(String packageName, String className, Node node, int capacity) {
+        String body = extractIfLong(generate(node));
+        return "package " + packageName + ";\n\n"
+                + "import " + CompiledGenerator.class.getName() + ";\n"
+                + "import com.github.curiousoddman.rgxgen.random.RandomSource;\n"
+                + "import com.github.curiousoddman.rgxgen.util.Util;\n"
+                + "import " + SymbolSetIndexer.class.getName() + ";\n\n"
+                + "public final class " + className + " implements CompiledGenerator {\n"
+                + aFields
+                + "\n"
+                + "    public " + className + "(Object[] constants) {\n"
+                + aAssignments
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public void generateInto(RandomSource random, StringBuilder sb) {\n"
+                + "        int[] g = " + (aSlotsCount == 0 ? "null" : "new int[" + aSlotsCount * 2 + ']') + ";\n"
+                + "        sb.ensureCapacity(sb.length() + " + capacity + ");\n"
+                + body
+                + "    }\n\n"
+                + aMethods
+                + "}\n";
+    }
+
+    /**
+     * @return values for the constants array of the generated class constructor
+     */
+    Object[] getConstants() {
+        return aConstants.toArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.iterators.StringIterator;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.visitors.UniqueGenerationVisitor;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Generator that picks a random value from the table of all values of the pattern.
+ * Table is built on the first use. Each value is present in the table once, so all values are equally probable.
+ */
+class MaterializedGenerator implements CompiledGenerator {
+    private final Node             aNode;
+    private final RgxGenProperties aProperties;
+
+    private volatile String[] aValues;
+
+    MaterializedGenerator(Node node, RgxGenProperties properties) {
+        aNode = node;
+        aProperties = properties;
+    }
+
+    @Override
+    public void generateInto(RandomSource random, StringBuilder sb) {
+        sb.append(generate(random));
+    }
+
+    @Override
+    public String generate(RandomSource random) {
+        String[] values = getValues();
+        return values[random.nextInt(values.length)];
+    }
+
+    String[] getValues() {
+        String[] values = aValues;
+        if (values == null) {
+            synchronized (this) {
+                values = aValues;
+                if (values == null) {
+                    values = materialize();
+                    aValues = values;
+                }
+            }
+        }
+        return values;
+    }
+
+    private String[] materialize() {
+        UniqueGenerationVisitor visitor = new UniqueGenerationVisitor(aProperties);
+        aNode.visit(visitor);
+        StringIterator iterator = visitor.getUniqueStrings();
+        // Alternatives might produce the same values, e.g. (a|a), so duplicates are removed
+        Set<String> values = new LinkedHashSet<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next()
+                               .intern());
+        }
+        return values.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.model.OptimizationLevel;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.program.Program;
+import com.github.curiousoddman.rgxgen.program.ProgramCompiler;
+import com.github.curiousoddman.rgxgen.program.TreeOptimizer;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.visitors.UniqueValuesCountingVisitor;
+
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generator that promotes the pattern to more expensive, but faster engines as the number of generated values grows:
+ * <ol>
+ *     <li>tree walking - no preparation is needed;</li>
+ *     <li>interpreted {@link Program} - after {@link RgxGenOption#PROGRAM_COMPILATION_THRESHOLD} values;</li>
+ *     <li>bytecode compiled with {@link GeneratorCompiler} - after {@link RgxGenOption#BYTECODE_COMPILATION_THRESHOLD} values, if enabled.</li>
+ * </ol>
+ * All engines generate the same values for the same random, so promotion is not visible to the caller:
+ * when {@link RgxGenOption#OPTIMIZATION_LEVEL} allows optimizations that change values, all engines use the optimized tree.
+ * <p>
+ * When {@link RgxGenOption#MATERIALIZATION_THRESHOLD} is set and the pattern has fewer unique values than the threshold,
+ * the values are picked from the table of all values instead. Such values are equally probable, so they differ from the values of other engines.
+ * For this reason the table is not a promotion after a number of values - switching to it would change values in the middle of the stream.
+ * Instead, the number of values is counted when the first value is generated, so patterns that are parsed but not used do not pay for it.
+ * <p>
+ * Generator is thread safe.
+ */
+public final class TieredGenerator implements CompiledGenerator {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Node             aNode;
+    private final RgxGenProperties aProperties;
+    private final int              aProgramThreshold;
+    private final int              aBytecodeThreshold;
+    private final int              aMaterializationThreshold;
+    private final AtomicInteger    aCalls = new AtomicInteger();
+
+    private volatile CompiledGenerator aEngine;
+    private volatile boolean           aCounting;
+    private volatile int               aPromotionThreshold;
+    private volatile Node              aOptimizedNode;
+    private volatile Program           aProgram;
+    private boolean                    aMaterializationPending;
+
+    public TieredGenerator(Node node, RgxGenProperties properties) {
+        aNode = node;
+        aProperties = properties;
+        aProgramThreshold = RgxGenOption.PROGRAM_COMPILATION_THRESHOLD.getFromProperties(properties);
+        aBytecodeThreshold = RgxGenOption.BYTECODE_COMPILATION_THRESHOLD.getFromProperties(properties);
+        aMaterializationThreshold = RgxGenOption.MATERIALIZATION_THRESHOLD.getFromProperties(properties);
+        // Optimizations that change values are applied to the tree walked by the first engine too, otherwise values change after promotion.
+        // Tree is optimized only when the first value is generated.
+        OptimizationLevel level = RgxGenOption.OPTIMIZATION_LEVEL.getFromProperties(properties);
+        aEngine = level.compareTo(OptimizationLevel.PRESERVE_VALUES) <= 0
+                  ? new VisitorGenerator(node, properties)
+                  : new VisitorGenerator(this::getOptimizedNode, properties);
+        aCounting = true;
+        if (aMaterializationThreshold > 0) {
+            // Materialization is decided on the first value
+            aMaterializationPending = true;
+            aPromotionThreshold = 0;
+        } else {
+            aPromotionThreshold = aProgramThreshold;
+            // Engines with zero threshold are used from the first value
+            promote(1);
+        }
+    }
+
+    private static boolean isSmallFiniteLanguage(Node node, RgxGenProperties properties, int threshold) {
+        UniqueValuesCountingVisitor visitor = new UniqueValuesCountingVisitor(properties);
+        node.visit(visitor);
+        Optional<BigInteger> estimation = visitor.getEstimation();
+        // Estimation might be greater than the actual number of values, but never less
+        return estimation.isPresent() && estimation.get()
+                                                   .compareTo(BigInteger.valueOf(threshold)) <= 0;
+    }
+
+    @Override
+    public void generateInto(RandomSource random, StringBuilder sb) {
+        nextEngine().generateInto(random, sb);
+    }
+
+    @Override
+    public String generate(RandomSource random) {
+        return nextEngine().generate(random);
+    }
+
+    private CompiledGenerator nextEngine() {
+        if (aCounting) {
+            int calls = aCalls.incrementAndGet();
+            if (calls > aPromotionThreshold) {
+                promote(calls);
+            }
+        }
+        return aEngine;
+    }
+
+    private synchronized void promote(int calls) {
+        selectMaterialization();
+        while (aCounting && calls > aPromotionThreshold) {
+            if (aEngine instanceof VisitorGenerator) {
+                aEngine = new InterpretedGenerator(getProgram());
+                if (aBytecodeThreshold < 0) {
+                    aCounting = false;
+                } else {
+                    aPromotionThreshold = aBytecodeThreshold;
+                }
+            } else {
+                aEngine = GeneratorCompiler.compile(getOptimizedNode(), aProperties);
+                aCounting = false;
+            }
+        }
+    }
+
+    private synchronized void selectMaterialization() {
+        if (aMaterializationPending) {
+            aMaterializationPending = false;
+            if (isSmallFiniteLanguage(aNode, aProperties, aMaterializationThreshold)) {
+                aEngine = new MaterializedGenerator(aNode, aProperties);
+                aCounting = false;
+            } else {
+                aPromotionThreshold = aProgramThreshold;
+            }
+        }
+    }
+
+    /**
+     * Get the table of all values, when values are picked from it instead of being generated.
+     * Other generators of the pattern should use the table too, otherwise they produce different values for the same random.
+     *
+     * @return all values of the pattern or null, if pattern is not materialized
+     * @see RgxGenOption#MATERIALIZATION_THRESHOLD
+     */
+    public String[] getMaterializedValues() {
+        selectMaterialization();
+        CompiledGenerator engine = aEngine;
+        return engine instanceof MaterializedGenerator ? ((MaterializedGenerator) engine).getValues() : null;
+    }
+
+    /**
+     * @return tree optimized for generation
+     */
+    public Node getOptimizedNode() {
+        Node optimizedNode = aOptimizedNode;
+        if (optimizedNode == null) {
+            synchronized (this) {
+                optimizedNode = aOptimizedNode;
+                if (optimizedNode == null) {
+                    optimizedNode = TreeOptimizer.optimize(aNode, aProperties);
+                    aOptimizedNode = optimizedNode;
+                }
+            }
+        }
+        return optimizedNode;
+    }
+
+    /**
+     * Get the program of the pattern. Program is compiled on the first call.
+     *
+     * @return compiled program
+     */
+    public Program getProgram() {
+        Program program = aProgram;
+        if (program == null) {
+            synchronized (this) {
+                program = aProgram;
+                if (program == null) {
+                    program = ProgramCompiler.compile(getOptimizedNode(), aProperties);
+                    aProgram = program;
+                }
+            }
+        }
+        return program;
+    }
+
+    /**
+     * @return initial capacity for the buffers to generate values into
+     */
+    public int getCapacity() {
+        Program program = aProgram;
+        return program == null ? DEFAULT_CAPACITY : program.getCapacity();
+    }
+
+    CompiledGenerator getEngine() {
+        return aEngine;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.visitors.GenerationVisitor;
+
+import java.util.function.Supplier;
+
+/**
+ * Generator that walks the nodes tree with {@link GenerationVisitor}.
+ * It does not need any preparation, so it is used for patterns that generate only few values.
+ */
+class VisitorGenerator implements CompiledGenerator {
+    private final Supplier<Node>   aNode;
+    private final RgxGenProperties aProperties;
+
+    VisitorGenerator(Node node, RgxGenProperties properties) {
+        this(() -> node, properties);
+    }
+
+    /**
+     * @param node       supplier of the tree to walk. It is called for each value, so it should be cheap.
+     * @param properties properties of the pattern
+     */
+    VisitorGenerator(Supplier<Node> node, RgxGenProperties properties) {
+        aNode = node;
+        aProperties = properties;
+    }
+
+    @Override
+    public void generateInto(RandomSource random, StringBuilder sb) {
+        sb.append(visit(random).getStringBuilder());
+    }
+
+    @Override
+    public String generate(RandomSource random) {
+        return visit(random).getString();
+    }
+
+    private GenerationVisitor visit(RandomSource random) {
+        GenerationVisitor visitor = GenerationVisitor.builder()
+                                                     .withRandom(random)
+                                                     .withProperties(aProperties)
+                                                     .get();
+        aNode.get()
+             .visit(visitor);
+        return visitor;
+    }
+}
@@ -16,6 +16,7 @@ package com.github.curiousoddman.rgxgen.config;
    limitations under the License.
 /* **************************************************************************/
 
+import com.github.curiousoddman.rgxgen.model.OptimizationLevel;
 import com.github.curiousoddman.rgxgen.model.RgxGenCharsDefinition;
 import com.github.curiousoddman.rgxgen.model.WhitespaceChar;
 
@@ -56,6 +57,47 @@ public class RgxGenOption<T> {
      */
     public static final RgxGenOption<List<WhitespaceChar>> WHITESPACE_DEFINITION = new RgxGenOption<>("whitespace.matches", Arrays.asList(WhitespaceChar.SPACE, WhitespaceChar.TAB));
 
+    /**
+     * Character sets up to this size are flattened into an array, so that picking a character is a single array access.
+     * Larger sets, such as unicode categories, use binary search over the ranges.
+     *
+     * @defaultValue 1024
+     */
+    public static final RgxGenOption<Integer> SYMBOL_SET_FLATTEN_LIMIT = new RgxGenOption<>("generation.symbolset.flatten.limit", 1024);
+
+    /**
+     * Optimizations applied to the nodes tree before generation.
+     * Only {@link OptimizationLevel#NONE} and {@link OptimizationLevel#PRESERVE_VALUES} keep the values generated for the same seed.
+     *
+     * @defaultValue PRESERVE_VALUES
+     */
+    public static final RgxGenOption<OptimizationLevel> OPTIMIZATION_LEVEL = new RgxGenOption<>("generation.optimization.level", OptimizationLevel.PRESERVE_VALUES);
+
+    /**
+     * Number of values generated by walking the nodes tree, before the pattern is compiled into a program.
+     * Tree walking needs no preparation, so it is faster for patterns that are used to generate only few values.
+     *
+     * @defaultValue 8
+     */
+    public static final RgxGenOption<Integer> PROGRAM_COMPILATION_THRESHOLD = new RgxGenOption<>("generation.tiered.program.threshold", 8);
+
+    /**
+     * Number of generated values, after which the pattern is compiled into bytecode with {@link com.github.curiousoddman.rgxgen.compiler.GeneratorCompiler}.
+     * Negative value disables the bytecode compilation.
+     *
+     * @defaultValue -1
+     */
+    public static final RgxGenOption<Integer> BYTECODE_COMPILATION_THRESHOLD = new RgxGenOption<>("generation.tiered.bytecode.threshold", -1);
+
+    /**
+     * Maximum number of unique values of the pattern, for which all values are generated once and then picked from the table.
+     * All values in the table are equally probable, so the distribution and the values generated for the same seed differ from the default generation.
+     * Zero disables the table.
+     *
+     * @defaultValue 0
+     */
+    public static final RgxGenOption<Integer> MATERIALIZATION_THRESHOLD = new RgxGenOption<>("generation.materialization.threshold", 0);
+
     private final String key;
     private final T      defaultValue;
 
@@ -0,0 +1,288 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Digit of the {@link UniqueCursor} odometer. Each digit writes its value into the shared buffer, starting at its start position.
+ * When digit advances, it rewrites the buffer from its start - only the suffix of the value that changed.
+ */
+abstract class CursorDigit {
+    private int aStart;
+
+    /**
+     * Append the first value of the digit to the buffer.
+     *
+     * @param sb buffer
+     */
+    final void first(StringBuilder sb) {
+        aStart = sb.length();
+        appendFirst(sb);
+    }
+
+    /**
+     * Replace the value of the digit and everything after it with the next value of the digit.
+     * When there are no more values, contents of the buffer after the start of the digit is undefined.
+     *
+     * @param sb buffer
+     * @return true, if digit advanced to the next value, false if there are no more values
+     */
+    abstract boolean advance(StringBuilder sb);
+
+    /**
+     * @return new digit with the same values, which is not positioned
+     */
+    abstract CursorDigit copy();
+
+    abstract void appendFirst(StringBuilder sb);
+
+    final void truncate(StringBuilder sb) {
+        sb.setLength(aStart);
+    }
+
+    static final class Literal extends CursorDigit {
+        private final String aValue;
+
+        Literal(String value) {
+            aValue = value;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            sb.append(aValue);
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            return false;
+        }
+
+        @Override
+        CursorDigit copy() {
+            // Literal does not use its position, so it can be shared
+            return this;
+        }
+    }
+
+    static final class Symbols extends CursorDigit {
+        private final SymbolSetIndexer aIndexer;
+
+        private int aIndex;
+
+        Symbols(SymbolSetIndexer indexer) {
+            aIndexer = indexer;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            aIndex = 0;
+            sb.append(aIndexer.get(0));
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            if (++aIndex >= aIndexer.size()) {
+                return false;
+            }
+            truncate(sb);
+            sb.append(aIndexer.get(aIndex));
+            return true;
+        }
+
+        @Override
+        CursorDigit copy() {
+            return new Symbols(aIndexer);
+        }
+    }
+
+    static final class Sequence extends CursorDigit {
+        private final CursorDigit[] aDigits;
+
+        Sequence(CursorDigit[] digits) {
+            aDigits = digits;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            for (CursorDigit digit : aDigits) {
+                digit.first(sb);
+            }
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            return advanceDigits(aDigits, aDigits.length, sb);
+        }
+
+        @Override
+        CursorDigit copy() {
+            CursorDigit[] digits = new CursorDigit[aDigits.length];
+            for (int i = 0; i < digits.length; i++) {
+                digits[i] = aDigits[i].copy();
+            }
+            return new Sequence(digits);
+        }
+    }
+
+    /**
+     * Advance the last digit that has more values and reset all digits after it.
+     */
+    static boolean advanceDigits(CursorDigit[] digits, int count, StringBuilder sb) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (digits[i].advance(sb)) {
+                for (int j = i + 1; j < count; j++) {
+                    digits[j].first(sb);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Choice extends CursorDigit {
+        private final CursorDigit[] aAlternatives;
+
+        private int aCurrent;
+
+        Choice(CursorDigit[] alternatives) {
+            aAlternatives = alternatives;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            aCurrent = 0;
+            aAlternatives[0].first(sb);
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            if (aAlternatives[aCurrent].advance(sb)) {
+                return true;
+            }
+            if (++aCurrent >= aAlternatives.length) {
+                return false;
+            }
+            truncate(sb);
+            aAlternatives[aCurrent].first(sb);
+            return true;
+        }
+
+        @Override
+        CursorDigit copy() {
+            CursorDigit[] alternatives = new CursorDigit[aAlternatives.length];
+            for (int i = 0; i < alternatives.length; i++) {
+                alternatives[i] = aAlternatives[i].copy();
+            }
+            return new Choice(alternatives);
+        }
+    }
+
+    static final class Repeat extends CursorDigit {
+        private final CursorDigit       aPrototype;
+        private final int               aMin;
+        private final int               aMax;
+        private final List<CursorDigit> aCopies = new ArrayList<>();
+
+        private CursorDigit[] aDigits = new CursorDigit[0];
+        private int           aLength;
+
+        Repeat(CursorDigit prototype, int min, int max) {
+            aPrototype = prototype;
+            aMin = min;
+            aMax = max;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            setLength(aMin, sb);
+        }
+
+        private void setLength(int length, StringBuilder sb) {
+            aLength = length;
+            while (aCopies.size() < length) {
+                aCopies.add(aCopies.isEmpty() ? aPrototype : aPrototype.copy());
+            }
+            if (aDigits.length < length) {
+                aDigits = aCopies.toArray(new CursorDigit[0]);
+            }
+            for (int i = 0; i < length; i++) {
+                aDigits[i].first(sb);
+            }
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            if (advanceDigits(aDigits, aLength, sb)) {
+                return true;
+            }
+            if (aMax >= 0 && aLength >= aMax) {
+                return false;
+            }
+            truncate(sb);
+            setLength(aLength + 1, sb);
+            return true;
+        }
+
+        @Override
+        CursorDigit copy() {
+            return new Repeat(aPrototype.copy(), aMin, aMax);
+        }
+    }
+
+    /**
+     * Digit that takes values from the iterator. Whole value of the iterator is rewritten on each advance.
+     */
+    static final class Iterated extends CursorDigit {
+        private final Supplier<StringIterator> aSupplier;
+
+        private StringIterator aIterator;
+
+        Iterated(Supplier<StringIterator> supplier) {
+            aSupplier = supplier;
+        }
+
+        @Override
+        void appendFirst(StringBuilder sb) {
+            if (aIterator == null) {
+                aIterator = aSupplier.get();
+            } else {
+                aIterator.reset();
+            }
+            sb.append(aIterator.next());
+        }
+
+        @Override
+        boolean advance(StringBuilder sb) {
+            if (!aIterator.hasNext()) {
+                return false;
+            }
+            truncate(sb);
+            sb.append(aIterator.next());
+            return true;
+        }
+
+        @Override
+        CursorDigit copy() {
+            return new Iterated(aSupplier);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+
+import java.util.*;
+
+/**
+ * Minimal deterministic automaton that accepts values of the pattern.
+ * <p>
+ * Characters are grouped into classes - ranges of characters that are never distinguished by the pattern.
+ * Automaton is built with subset construction from {@link NfaBuilder} automaton, states that cannot reach accepting state are removed
+ * and equivalent states are merged. Each accepted value corresponds to exactly one path from the start state.
+ */
+final class Dfa {
+    /**
+     * Limit of states of the deterministic automaton. Larger patterns are not supported.
+     */
+    static final int MAX_STATES     = 100_000;
+    /**
+     * Limit of states of the nondeterministic automaton.
+     */
+    static final int MAX_NFA_STATES = 1_000_000;
+
+    private final int[]     aClassFrom;
+    private final int[]     aClassTo;
+    private final int[][]   aTransitions;
+    private final boolean[] aAccepting;
+    private final int       aStart;
+    private final int       aMaxLength;
+
+    private Dfa(int[] classFrom, int[] classTo, int[][] transitions, boolean[] accepting, int start) {
+        aClassFrom = classFrom;
+        aClassTo = classTo;
+        aTransitions = transitions;
+        aAccepting = accepting;
+        aStart = start;
+        aMaxLength = maxLength();
+    }
+
+    /**
+     * Build automaton for the nodes tree.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     * @return automaton
+     * @throws UnsupportedOperationException if pattern has back references or lookarounds, or if automaton is too large
+     */
+    static Dfa build(Node node, RgxGenProperties properties) {
+        NfaBuilder nfa = new NfaBuilder(properties, MAX_NFA_STATES);
+        int start = nfa.build(node);
+        int accept = nfa.getEnd();
+
+        // Boundaries of character classes: each label range starts and ends at a boundary
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        for (int s = 0; s < nfa.size(); s++) {
+            for (int[] label : nfa.getLabels(s)) {
+                for (int i = 0; i < label.length; i += 2) {
+                    boundaries.add(label[i]);
+                    boundaries.add(label[i + 1] + 1);
+                }
+            }
+        }
+        int[] points = new int[boundaries.size()];
+        int pointsCount = 0;
+        for (int point : boundaries) {
+            points[pointsCount++] = point;
+        }
+
+        // Classes of each label. Only classes that are used by some label are kept
+        int[][][] edgeClasses = new int[nfa.size()][][];
+        BitSet usedClasses = new BitSet();
+        for (int s = 0; s < nfa.size(); s++) {
+            List<int[]> labels = nfa.getLabels(s);
+            edgeClasses[s] = new int[labels.size()][];
+            for (int e = 0; e < labels.size(); e++) {
+                int[] label = labels.get(e);
+                BitSet classes = new BitSet();
+                for (int i = 0; i < label.length; i += 2) {
+                    classes.set(Arrays.binarySearch(points, label[i]), Arrays.binarySearch(points, label[i + 1] + 1));
+                }
+                usedClasses.or(classes);
+                edgeClasses[s][e] = classes.stream()
+                                           .toArray();
+            }
+        }
+        int classesCount = usedClasses.cardinality();
+        int[] classFrom = new int[classesCount];
+        int[] classTo = new int[classesCount];
+        int[] compactClass = new int[pointsCount];
+        int next = 0;
+        for (int c = usedClasses.nextSetBit(0); c >= 0; c = usedClasses.nextSetBit(c + 1)) {
+            classFrom[next] = points[c];
+            classTo[next] = points[c + 1] - 1;
+            compactClass[c] = next++;
+        }
+        for (int[][] stateClasses : edgeClasses) {
+            for (int[] classes : stateClasses) {
+                for (int i = 0; i < classes.length; i++) {
+                    classes[i] = compactClass[classes[i]];
+                }
+            }
+        }
+
+        // Subset construction. Sets of states are kept as sorted arrays - automata of long repetitions have many small sets
+        Map<StateSet, Integer> ids = new HashMap<>();
+        List<int[]> sets = new ArrayList<>();
+        List<int[]> transitions = new ArrayList<>();
+        BitSet scratch = new BitSet();
+        int[] initial = closure(nfa, Collections.singletonList(start), scratch);
+        ids.put(new StateSet(initial), 0);
+        sets.add(initial);
+        for (int d = 0; d < sets.size(); d++) {
+            List<List<Integer>> moves = new ArrayList<>(Collections.nCopies(classesCount, (List<Integer>) null));
+            for (int s : sets.get(d)) {
+                List<Integer> targets = nfa.getTargets(s);
+                for (int e = 0; e < targets.size(); e++) {
+                    for (int c : edgeClasses[s][e]) {
+                        if (moves.get(c) == null) {
+                            moves.set(c, new ArrayList<>());
+                        }
+                        moves.get(c)
+                             .add(targets.get(e));
+                    }
+                }
+            }
+            int[] row = new int[classesCount];
+            for (int c = 0; c < classesCount; c++) {
+                if (moves.get(c) == null) {
+                    row[c] = -1;
+                    continue;
+                }
+                int[] set = closure(nfa, moves.get(c), scratch);
+                StateSet key = new StateSet(set);
+                Integer id = ids.get(key);
+                if (id == null) {
+                    if (sets.size() >= MAX_STATES) {
+                        throw new UnsupportedOperationException("Pattern is too large for exact enumeration");
+                    }
+                    id = sets.size();
+                    ids.put(key, id);
+                    sets.add(set);
+                }
+                row[c] = id;
+            }
+            transitions.add(row);
+        }
+        boolean[] accepting = new boolean[sets.size()];
+        for (int d = 0; d < accepting.length; d++) {
+            accepting[d] = Arrays.binarySearch(sets.get(d), accept) >= 0;
+        }
+        return minimize(classFrom, classTo, transitions.toArray(new int[0][]), accepting);
+    }
+
+    /**
+     * @param nfa     automaton
+     * @param states  states to start from
+     * @param scratch empty set, it is empty again when method returns
+     * @return sorted states, reachable from given states by epsilon transitions
+     */
+    private static int[] closure(NfaBuilder nfa, List<Integer> states, BitSet scratch) {
+        Deque<Integer> stack = new ArrayDeque<>();
+        List<Integer> result = new ArrayList<>();
+        for (int s : states) {
+            if (!scratch.get(s)) {
+                scratch.set(s);
+                result.add(s);
+                stack.push(s);
+            }
+        }
+        while (!stack.isEmpty()) {
+            for (int t : nfa.getEpsilons(stack.pop())) {
+                if (!scratch.get(t)) {
+                    scratch.set(t);
+                    result.add(t);
+                    stack.push(t);
+                }
+            }
+        }
+        int[] closure = new int[result.size()];
+        for (int i = 0; i < closure.length; i++) {
+            closure[i] = result.get(i);
+            scratch.clear(closure[i]);
+        }
+        Arrays.sort(closure);
+        return closure;
+    }
+
+    /**
+     * Set of the automaton states as a key of the map.
+     */
+    private static final class StateSet {
+        private final int[] aStates;
+        private final int   aHash;
+
+        StateSet(int[] states) {
+            aStates = states;
+            aHash = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateSet && Arrays.equals(aStates, ((StateSet) o).aStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return aHash;
+        }
+    }
+
+    /**
+     * Remove states that cannot reach accepting state and merge equivalent states (Hopcroft's algorithm).
+     * <p>
+     * Removed states and missing transitions lead to an implicit dead state. Dead state is never split,
+     * so it is not used as a splitter and transitions into it are not indexed.
+     */
+    private static Dfa minimize(int[] classFrom, int[] classTo, int[][] transitions, boolean[] accepting) {
+        int size = transitions.length;
+        int classes = classFrom.length;
+        boolean[] live = live(transitions, accepting);
+        if (!live[0]) {
+            return new Dfa(classFrom, classTo, new int[0][], new boolean[0], -1);
+        }
+
+        // Transitions into each live state, ordered by target: sources and classes
+        int[] inStart = new int[size + 1];
+        for (int s = 0; s < size; s++) {
+            if (live[s]) {
+                for (int t : transitions[s]) {
+                    if (t >= 0 && live[t]) {
+                        inStart[t + 1]++;
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < size; s++) {
+            inStart[s + 1] += inStart[s];
+        }
+        int[] inSource = new int[inStart[size]];
+        int[] inClass = new int[inStart[size]];
+        int[] inNext = Arrays.copyOf(inStart, size);
+        for (int s = 0; s < size; s++) {
+            if (live[s]) {
+                for (int c = 0; c < classes; c++) {
+                    int t = transitions[s][c];
+                    if (t >= 0 && live[t]) {
+                        inSource[inNext[t]] = s;
+                        inClass[inNext[t]++] = c;
+                    }
+                }
+            }
+        }
+
+        // Partition: states of block b are elements[blockFrom[b]..blockTo[b]), first marked[b] of them are marked
+        int[] elements = new int[size];
+        int[] location = new int[size];
+        int[] blocks = new int[size];
+        int[] blockFrom = new int[size];
+        int[] blockTo = new int[size];
+        int[] marked = new int[size];
+        int liveCount = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int s = 0; s < size; s++) {
+                if (live[s] && accepting[s] == (pass == 0)) {
+                    location[s] = liveCount;
+                    elements[liveCount++] = s;
+                }
+            }
+        }
+        int acceptingCount = 0;
+        for (int s = 0; s < size; s++) {
+            blocks[s] = -1;
+            if (live[s] && accepting[s]) {
+                acceptingCount++;
+            }
+        }
+        int blocksCount = 0;
+        int[] pending = new int[size];
+        boolean[] isPending = new boolean[size];
+        int pendingCount = 0;
+        for (int[] range : new int[][]{{0, acceptingCount}, {acceptingCount, liveCount}}) {
+            if (range[0] < range[1]) {
+                blockFrom[blocksCount] = range[0];
+                blockTo[blocksCount] = range[1];
+                for (int i = range[0]; i < range[1]; i++) {
+                    blocks[elements[i]] = blocksCount;
+                }
+                pending[pendingCount++] = blocksCount;
+                isPending[blocksCount] = true;
+                blocksCount++;
+            }
+        }
+
+        // Sources of transitions into the splitter, grouped by class
+        int[][] sources = new int[classes][4];
+        int[] sourcesCount = new int[classes];
+        int[] usedClasses = new int[classes];
+        int[] touched = new int[size];
+        int[] splitter = new int[size];
+        while (pendingCount > 0) {
+            int a = pending[--pendingCount];
+            isPending[a] = false;
+            // Splitter might be split while it is processed, so its states are copied
+            int splitterSize = blockTo[a] - blockFrom[a];
+            System.arraycopy(elements, blockFrom[a], splitter, 0, splitterSize);
+            int usedCount = 0;
+            for (int i = 0; i < splitterSize; i++) {
+                int t = splitter[i];
+                for (int e = inStart[t]; e < inStart[t + 1]; e++) {
+                    int c = inClass[e];
+                    if (sourcesCount[c] == 0) {
+                        usedClasses[usedCount++] = c;
+                    } else if (sourcesCount[c] == sources[c].length) {
+                        sources[c] = Arrays.copyOf(sources[c], sources[c].length * 2);
+                    }
+                    sources[c][sourcesCount[c]++] = inSource[e];
+                }
+            }
+            for (int u = 0; u < usedCount; u++) {
+                int c = usedClasses[u];
+                int touchedCount = 0;
+                for (int i = 0; i < sourcesCount[c]; i++) {
+                    int s = sources[c][i];
+                    int b = blocks[s];
+                    int firstUnmarked = blockFrom[b] + marked[b];
+                    if (location[s] >= firstUnmarked) {
+                        // Mark the state: swap it with the first unmarked state of the block
+                        int other = elements[firstUnmarked];
+                        elements[location[s]] = other;
+                        location[other] = location[s];
+                        elements[firstUnmarked] = s;
+                        location[s] = firstUnmarked;
+                        if (marked[b]++ == 0) {
+                            touched[touchedCount++] = b;
+                        }
+                    }
+                }
+                sourcesCount[c] = 0;
+                for (int i = 0; i < touchedCount; i++) {
+                    int b = touched[i];
+                    int markedCount = marked[b];
+                    marked[b] = 0;
+                    if (markedCount == blockTo[b] - blockFrom[b]) {
+                        continue;
+                    }
+                    // Marked states form a new block
+                    int n = blocksCount++;
+                    blockFrom[n] = blockFrom[b];
+                    blockTo[n] = blockFrom[b] + markedCount;
+                    blockFrom[b] = blockTo[n];
+                    for (int j = blockFrom[n]; j < blockTo[n]; j++) {
+                        blocks[elements[j]] = n;
+                    }
+                    int added = isPending[b] || blockTo[n] - blockFrom[n] <= blockTo[b] - blockFrom[b] ? n : b;
+                    if (!isPending[added]) {
+                        isPending[added] = true;
+                        pending[pendingCount++] = added;
+                    }
+                }
+            }
+        }
+
+        // Blocks are numbered in the order of their first state, so the start state is 0
+        int[] ids = new int[blocksCount];
+        Arrays.fill(ids, -1);
+        int idsCount = 0;
+        for (int s = 0; s < size; s++) {
+            if (blocks[s] >= 0 && ids[blocks[s]] < 0) {
+                ids[blocks[s]] = idsCount++;
+            }
+        }
+        int[][] minimized = new int[blocksCount][];
+        boolean[] minimizedAccepting = new boolean[blocksCount];
+        for (int s = 0; s < size; s++) {
+            if (blocks[s] < 0) {
+                continue;
+            }
+            int block = ids[blocks[s]];
+            if (minimized[block] == null) {
+                int[] row = new int[classes];
+                for (int c = 0; c < classes; c++) {
+                    int t = transitions[s][c];
+                    row[c] = t < 0 || blocks[t] < 0 ? -1 : ids[blocks[t]];
+                }
+                minimized[block] = row;
+                minimizedAccepting[block] = accepting[s];
+            }
+        }
+        return new Dfa(classFrom, classTo, minimized, minimizedAccepting, ids[blocks[0]]);
+    }
+
+    /**
+     * @return for each state - whether accepting state can be reached from it
+     */
+    private static boolean[] live(int[][] transitions, boolean[] accepting) {
+        int size = transitions.length;
+        List<List<Integer>> reverse = new ArrayList<>(size);
+        for (int s = 0; s < size; s++) {
+            reverse.add(new ArrayList<>());
+        }
+        for (int s = 0; s < size; s++) {
+            for (int t : transitions[s]) {
+                if (t >= 0) {
+                    reverse.get(t)
+                           .add(s);
+                }
+            }
+        }
+        boolean[] live = accepting.clone();
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int s = 0; s < size; s++) {
+            if (live[s]) {
+                stack.push(s);
+            }
+        }
+        while (!stack.isEmpty()) {
+            for (int s : reverse.get(stack.pop())) {
+                if (!live[s]) {
+                    live[s] = true;
+                    stack.push(s);
+                }
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Find length of the longest accepted value with topological sort of states.
+     *
+     * @return length of the longest value or -1, if automaton has a cycle and accepts infinite number of values
+     */
+    private int maxLength() {
+        int size = aTransitions.length;
+        int[] inDegree = new int[size];
+        for (int[] row : aTransitions) {
+            for (int t : row) {
+                if (t >= 0) {
+                    inDegree[t]++;
+                }
+            }
+        }
+        int[] longest = new int[size];
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int s = 0; s < size; s++) {
+            if (inDegree[s] == 0) {
+                ready.push(s);
+            }
+        }
+        int sorted = 0;
+        int maxLength = 0;
+        while (!ready.isEmpty()) {
+            int s = ready.pop();
+            sorted++;
+            if (aAccepting[s]) {
+                maxLength = Math.max(maxLength, longest[s]);
+            }
+            for (int t : aTransitions[s]) {
+                if (t >= 0) {
+                    longest[t] = Math.max(longest[t], longest[s] + 1);
+                    if (--inDegree[t] == 0) {
+                        ready.push(t);
+                    }
+                }
+            }
+        }
+        return sorted == size ? maxLength : -1;
+    }
+
+    /**
+     * @return start state or -1, if automaton does not accept any value
+     */
+    int getStart() {
+        return aStart;
+    }
+
+    int size() {
+        return aTransitions.length;
+    }
+
+    int getClassesCount() {
+        return aClassFrom.length;
+    }
+
+    /**
+     * @return first character of the class
+     */
+    char getClassFrom(int characterClass) {
+        return (char) aClassFrom[characterClass];
+    }
+
+    /**
+     * @return last character of the class
+     */
+    char getClassTo(int characterClass) {
+        return (char) aClassTo[characterClass];
+    }
+
+    /**
+     * @return next state or -1, if there is no transition
+     */
+    int getTransition(int state, int characterClass) {
+        return aTransitions[state][characterClass];
+    }
+
+    boolean isAccepting(int state) {
+        return aAccepting[state];
+    }
+
+    /**
+     * @return length of the longest accepted value or -1, if number of values is infinite
+     */
+    int getMaxLength() {
+        return aMaxLength;
+    }
+}
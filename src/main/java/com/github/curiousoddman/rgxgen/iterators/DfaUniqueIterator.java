@@ -0,0 +1,249 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over values of the pattern without duplicates: values are enumerated by length and then lexicographically by character codes.
+ * <p>
+ * Values are paths in the minimal deterministic automaton of the pattern, so each value is found only once.
+ * Values of the same length are enumerated like an odometer: each position takes the smallest character, that still allows to reach
+ * accepting state in the remaining number of steps. Memory usage is proportional to the size of the automaton and the length of values,
+ * not to the number of enumerated values.
+ * <p>
+ * Patterns with back references or lookarounds are not supported.
+ */
+public final class DfaUniqueIterator implements StringIterator {
+    private final Dfa              aDfa;
+    /**
+     * States, from which accepting state can be reached in exactly {@code i} steps, for each {@code i}.
+     */
+    private final List<LiveStates> aLive = new ArrayList<>();
+    /**
+     * Predecessors of state {@code s} are {@code aPredecessors[aPredecessorsFrom[s]..aPredecessorsFrom[s + 1])}
+     */
+    private final int[]            aPredecessorsFrom;
+    private final int[]            aPredecessors;
+
+    private int     aLength;
+    private int[]   aStates;
+    private int[]   aClasses;
+    private char[]  aChars;
+    private boolean aHasNext;
+    private String  aCurrent;
+
+    /**
+     * Create iterator over values of the nodes tree.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     * @throws UnsupportedOperationException if pattern has back references or lookarounds, or it is too large
+     */
+    public DfaUniqueIterator(Node node, RgxGenProperties properties) {
+        aDfa = Dfa.build(node, properties);
+        int size = aDfa.size();
+        aPredecessorsFrom = new int[size + 1];
+        for (int s = 0; s < size; s++) {
+            for (int c = 0; c < aDfa.getClassesCount(); c++) {
+                int t = aDfa.getTransition(s, c);
+                if (t >= 0) {
+                    aPredecessorsFrom[t + 1]++;
+                }
+            }
+        }
+        for (int s = 0; s < size; s++) {
+            aPredecessorsFrom[s + 1] += aPredecessorsFrom[s];
+        }
+        aPredecessors = new int[aPredecessorsFrom[size]];
+        int[] next = Arrays.copyOf(aPredecessorsFrom, size);
+        for (int s = 0; s < size; s++) {
+            for (int c = 0; c < aDfa.getClassesCount(); c++) {
+                int t = aDfa.getTransition(s, c);
+                if (t >= 0) {
+                    aPredecessors[next[t]++] = s;
+                }
+            }
+        }
+
+        int[] accepting = new int[size];
+        int acceptingCount = 0;
+        for (int s = 0; s < size; s++) {
+            if (aDfa.isAccepting(s)) {
+                accepting[acceptingCount++] = s;
+            }
+        }
+        aLive.add(new LiveStates(accepting, acceptingCount));
+        reset();
+    }
+
+    /**
+     * States, that reach accepting state in {@code steps} steps, are predecessors of the states, that reach it in one step less.
+     * Only the previous states are visited, so automata of long repetitions take constant time for each step.
+     */
+    private LiveStates live(int steps) {
+        int[] states = null;
+        while (aLive.size() <= steps) {
+            LiveStates previous = aLive.get(aLive.size() - 1);
+            if (states == null) {
+                states = new int[aPredecessors.length];
+            }
+            int count = 0;
+            for (int i = previous.aStates.nextSetBit(0); i >= 0; i = previous.aStates.nextSetBit(i + 1)) {
+                int s = i + previous.aOffset;
+                for (int p = aPredecessorsFrom[s]; p < aPredecessorsFrom[s + 1]; p++) {
+                    states[count++] = aPredecessors[p];
+                }
+            }
+            aLive.add(new LiveStates(states, count));
+        }
+        return aLive.get(steps);
+    }
+
+    /**
+     * Set of states, kept from the smallest state, so that sets of few distant states are small.
+     */
+    private static final class LiveStates {
+        private final int    aOffset;
+        private final BitSet aStates;
+
+        LiveStates(int[] states, int count) {
+            int min = Integer.MAX_VALUE;
+            int max = -1;
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, states[i]);
+                max = Math.max(max, states[i]);
+            }
+            aOffset = count == 0 ? 0 : min;
+            aStates = new BitSet(max + 1 - aOffset);
+            for (int i = 0; i < count; i++) {
+                aStates.set(states[i] - aOffset);
+            }
+        }
+
+        boolean get(int state) {
+            return state >= aOffset && aStates.get(state - aOffset);
+        }
+    }
+
+    /**
+     * Position on the first value, that is not shorter than the length.
+     */
+    private void firstOfLength(int length) {
+        int start = aDfa.getStart();
+        int maxLength = aDfa.getMaxLength();
+        aHasNext = false;
+        if (start < 0) {
+            return;
+        }
+        // Language with a cycle has values of infinitely many lengths, so the search will stop
+        while (!live(length).get(start)) {
+            if (maxLength >= 0 && length >= maxLength) {
+                return;
+            }
+            length++;
+        }
+        aLength = length;
+        aStates = new int[length + 1];
+        aClasses = new int[length];
+        aChars = new char[length];
+        aStates[0] = start;
+        fill(0);
+        aHasNext = true;
+    }
+
+    /**
+     * Set the smallest characters from the position till the end of the value.
+     */
+    private void fill(int position) {
+        for (int i = position; i < aLength; i++) {
+            int c = nextClass(i, 0);
+            aClasses[i] = c;
+            aChars[i] = aDfa.getClassFrom(c);
+            aStates[i + 1] = aDfa.getTransition(aStates[i], c);
+        }
+    }
+
+    /**
+     * @return the first class, starting with {@code from}, that leads from the state at the position to the state,
+     * that can reach accepting state in the remaining steps, or -1 if there is no such class.
+     */
+    private int nextClass(int position, int from) {
+        LiveStates live = live(aLength - position - 1);
+        for (int c = from; c < aDfa.getClassesCount(); c++) {
+            int t = aDfa.getTransition(aStates[position], c);
+            if (t >= 0 && live.get(t)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private boolean advance() {
+        for (int i = aLength - 1; i >= 0; i--) {
+            if (aChars[i] < aDfa.getClassTo(aClasses[i])) {
+                aChars[i]++;
+                fill(i + 1);
+                return true;
+            }
+            int c = nextClass(i, aClasses[i] + 1);
+            if (c >= 0) {
+                aClasses[i] = c;
+                aChars[i] = aDfa.getClassFrom(c);
+                aStates[i + 1] = aDfa.getTransition(aStates[i], c);
+                fill(i + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return aHasNext;
+    }
+
+    @Override
+    public String next() {
+        if (!aHasNext) {
+            throw new NoSuchElementException("No more unique values");
+        }
+        aCurrent = new String(aChars, 0, aLength);
+        if (!advance()) {
+            firstOfLength(aLength + 1);
+        }
+        return aCurrent;
+    }
+
+    @Override
+    public void reset() {
+        aCurrent = null;
+        firstOfLength(0);
+    }
+
+    @Override
+    public String current() {
+        return aCurrent;
+    }
+}
@@ -17,18 +17,27 @@ package com.github.curiousoddman.rgxgen.iterators;
 /* **************************************************************************/
 
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.function.Supplier;
 
+/**
+ * Iterates over concatenations of growing number of values of the child iterators.
+ * <p>
+ * Child iterators are kept in slots - one per element of the value. When slots are reused, each slot is created only once
+ * and reset when it is needed again, so memory is proportional to the longest value returned so far, and reset allocates nothing.
+ * Slots cannot be reused, when values of the groups inside child iterators are referenced - reference always
+ * follows the iterator of the group that was created last.
+ */
 public class IncrementalLengthIterator implements StringIterator {
     private final Supplier<StringIterator> aSupplier;
     private final int                      aMin;
     private final int                      aMax;
+    private final boolean                  aReuseSlots;
 
     private int              aCurrentLength;
-    private StringIterator[] aCurrentIterators;
-    private boolean          aInit = true;
+    private StringIterator[] aSlots = new StringIterator[0];
+    private int              aActiveSlots;
+    private boolean          aInit  = true;
 
 
     // (a|b){1} -> "a", "b" --> "a", "b"
@@ -43,20 +52,35 @@ public class IncrementalLengthIterator implements StringIterator {
     // ...
 
     public IncrementalLengthIterator(Supplier<StringIterator> supplier, int min, int max) {
+        this(supplier, min, max, false);
+    }
+
+    /**
+     * @param supplier   supplier of the child iterators
+     * @param min        minimal number of elements
+     * @param max        maximal number of elements or -1, if unbounded
+     * @param reuseSlots whether child iterators can be reused instead of creating new ones
+     */
+    public IncrementalLengthIterator(Supplier<StringIterator> supplier, int min, int max, boolean reuseSlots) {
         aSupplier = supplier;
         aMin = min;
         aCurrentLength = min;
         aMax = max;
+        aReuseSlots = reuseSlots;
         reset();
     }
 
     private boolean lengthCanGrow() {
-        return aCurrentLength < aMax || aCurrentIterators.length < aCurrentLength || aMax < 0;
+        return aCurrentLength < aMax || aActiveSlots < aCurrentLength || aMax < 0;
     }
 
     private boolean hasMoreForCurrentLength() {
-        return Arrays.stream(aCurrentIterators)
-                     .anyMatch(Iterator::hasNext);
+        for (int i = 0; i < aActiveSlots; i++) {
+            if (aSlots[i].hasNext()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -64,17 +88,30 @@ public class IncrementalLengthIterator implements StringIterator {
         return lengthCanGrow() || hasMoreForCurrentLength();
     }
 
+    /**
+     * Put the new iterator into the slot, or reset the iterator that is already there, if slots are reused.
+     */
+    private void prepareSlot(int index, boolean reset) {
+        if (index >= aSlots.length) {
+            aSlots = Arrays.copyOf(aSlots, Math.max(index + 1, aSlots.length * 2));
+        }
+        if (aSlots[index] == null || !aReuseSlots) {
+            aSlots[index] = aSupplier.get();
+        } else if (reset) {
+            aSlots[index].reset();
+        }
+    }
+
     private void extendIterators() {
-        StringIterator[] tmp = new StringIterator[aCurrentLength];
-        for (int i = 0; i < aCurrentIterators.length; i++) {
-            tmp[i] = aCurrentIterators[i];
-            tmp[i].reset();
+        for (int i = 0; i < Math.min(aActiveSlots, aCurrentLength - 1); i++) {
+            aSlots[i].reset();
         }
-        tmp[aCurrentLength - 1] = aSupplier.get();
-        aCurrentIterators = tmp;
+        // Last slot always gets fresh values
+        prepareSlot(aCurrentLength - 1, true);
+        aActiveSlots = aCurrentLength;
         aInit = false;
         for (int i = 0; i < aCurrentLength; i++) {
-            aCurrentIterators[i].next();
+            aSlots[i].next();
         }
     }
 
@@ -89,8 +126,8 @@ public class IncrementalLengthIterator implements StringIterator {
         } else {
             // Advance one of iterators
             for (int i = aCurrentLength - 1; i >= 0; --i) {
-                if (aCurrentIterators[i].hasNext()) {
-                    aCurrentIterators[i].next();
+                if (aSlots[i].hasNext()) {
+                    aSlots[i].next();
                     break;
                 } else if (i == 0) {
                     if (aCurrentLength < aMax || aMax < 0) {
@@ -101,8 +138,8 @@ public class IncrementalLengthIterator implements StringIterator {
                         throw new NoSuchElementException("No more unique values");
                     }
                 } else {
-                    aCurrentIterators[i].reset();
-                    aCurrentIterators[i].next();
+                    aSlots[i].reset();
+                    aSlots[i].next();
                 }
             }
         }
@@ -114,16 +151,21 @@ public class IncrementalLengthIterator implements StringIterator {
     public final void reset() {
         aCurrentLength = aMin;
         aInit = true;
-        aCurrentIterators = new StringIterator[aCurrentLength];
-        for (int i = 0; i < aCurrentLength; i++) {
-            aCurrentIterators[i] = aSupplier.get();
+        for (int i = 0; i < aMin; i++) {
+            prepareSlot(i, true);
         }
+        aActiveSlots = aMin;
     }
 
     @Override
     public String current() {
-        return Arrays.stream(aCurrentIterators)
-                     .map(StringIterator::current)
-                     .reduce("", String::concat);
+        if (aActiveSlots == 1) {
+            return aSlots[0].current();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < aActiveSlots; i++) {
+            sb.append(aSlots[i].current());
+        }
+        return sb.toString();
     }
 }
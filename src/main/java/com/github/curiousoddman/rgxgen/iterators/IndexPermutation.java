@@ -0,0 +1,137 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.random.SplitMix64;
+
+import java.math.BigInteger;
+
+/**
+ * Keyed pseudo-random permutation of indices {@code [0, size)}.
+ * <p>
+ * Indices are encrypted with a balanced Feistel network over the smallest domain of {@code 2^(2 * halfBits)} indices that covers the range.
+ * Results outside of the range are encrypted again (cycle walking) - since the domain is less than 4 times larger than the range,
+ * only few rounds are needed on average. Permutation is defined by the size and the seed only, so any index can be permuted independently.
+ */
+final class IndexPermutation {
+    private static final int        ROUNDS        = 6;
+    private static final int        MAX_LONG_BITS = 62;
+    private static final BigInteger UNSIGNED_MASK = BigInteger.ONE.shiftLeft(Long.SIZE)
+                                                                  .subtract(BigInteger.ONE);
+
+    private final BigInteger aSize;
+    private final long       aLongSize;
+    private final int        aHalfBits;
+    private final long       aHalfMask;
+    private final BigInteger aBigHalfMask;
+    private final long[]     aKeys = new long[ROUNDS];
+
+    /**
+     * @param size number of indices, must be positive
+     * @param seed key of the permutation
+     */
+    IndexPermutation(BigInteger size, long seed) {
+        aSize = size;
+        aHalfBits = Math.max(1, (size.subtract(BigInteger.ONE)
+                                     .bitLength() + 1) / 2);
+        aLongSize = aHalfBits * 2 <= MAX_LONG_BITS ? size.longValue() : -1;
+        aHalfMask = aLongSize < 0 ? -1 : (1L << aHalfBits) - 1;
+        aBigHalfMask = BigInteger.ONE.shiftLeft(aHalfBits)
+                                     .subtract(BigInteger.ONE);
+        for (int i = 0; i < ROUNDS; i++) {
+            aKeys[i] = SplitMix64.mix(seed + (i + 1) * SplitMix64.GOLDEN_GAMMA);
+        }
+    }
+
+    BigInteger getSize() {
+        return aSize;
+    }
+
+    /**
+     * @return true, if indices can be permuted with {@link #apply(long)}
+     */
+    boolean isLongRange() {
+        return aLongSize >= 0;
+    }
+
+    /**
+     * @param index index in range {@code [0, size)}, size must fit into 62 bits
+     * @return permuted index
+     */
+    long apply(long index) {
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= aLongSize);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> aHalfBits;
+        long right = value & aHalfMask;
+        for (long key : aKeys) {
+            long next = left ^ SplitMix64.mix(right + key) & aHalfMask;
+            left = right;
+            right = next;
+        }
+        return left << aHalfBits | right;
+    }
+
+    /**
+     * @param index index in range {@code [0, size)}
+     * @return permuted index
+     */
+    BigInteger apply(BigInteger index) {
+        if (aLongSize >= 0) {
+            return BigInteger.valueOf(apply(index.longValue()));
+        }
+        BigInteger value = index;
+        do {
+            value = encrypt(value);
+        } while (value.compareTo(aSize) >= 0);
+        return value;
+    }
+
+    private BigInteger encrypt(BigInteger value) {
+        BigInteger left = value.shiftRight(aHalfBits);
+        BigInteger right = value.and(aBigHalfMask);
+        for (long key : aKeys) {
+            BigInteger next = left.xor(round(right, key));
+            left = right;
+            right = next;
+        }
+        return left.shiftLeft(aHalfBits)
+                   .or(right);
+    }
+
+    private BigInteger round(BigInteger value, long key) {
+        int words = (aHalfBits + Long.SIZE - 1) / Long.SIZE;
+        long hash = key;
+        for (int i = 0; i < words; i++) {
+            hash = SplitMix64.mix(hash ^ value.shiftRight(i * Long.SIZE)
+                                              .longValue());
+        }
+        BigInteger result = BigInteger.ZERO;
+        for (int i = 0; i < words; i++) {
+            long word = SplitMix64.mix(hash + (i + 1) * SplitMix64.GOLDEN_GAMMA);
+            result = result.shiftLeft(Long.SIZE)
+                           .or(BigInteger.valueOf(word)
+                                         .and(UNSIGNED_MASK));
+        }
+        return result.and(aBigHalfMask);
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds nondeterministic automaton with epsilon transitions for the nodes tree.
+ * Each node is translated into a fragment with a single start and a single end state. Repetitions are expanded into copies of the fragment.
+ * <p>
+ * Labels of transitions are sets of characters - sorted disjoint ranges {@code [from0, to0, from1, to1, ...]}, both ends inclusive.
+ */
+class NfaBuilder implements NodeVisitor {
+    private final int                 aMaxStates;
+    private final boolean             aCaseInsensitive;
+    private final List<List<Integer>> aEpsilons = new ArrayList<>();
+    private final List<List<int[]>>   aLabels   = new ArrayList<>();
+    private final List<List<Integer>> aTargets  = new ArrayList<>();
+
+    private int aStart;
+    private int aEnd;
+
+    NfaBuilder(RgxGenProperties properties, int maxStates) {
+        aMaxStates = maxStates;
+        aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+    }
+
+    /**
+     * Build fragment for the node.
+     *
+     * @param node node
+     * @return start state of the fragment. End state is {@link #getEnd()}
+     */
+    int build(Node node) {
+        node.visit(this);
+        return aStart;
+    }
+
+    int getEnd() {
+        return aEnd;
+    }
+
+    int size() {
+        return aEpsilons.size();
+    }
+
+    List<Integer> getEpsilons(int state) {
+        return aEpsilons.get(state);
+    }
+
+    List<int[]> getLabels(int state) {
+        return aLabels.get(state);
+    }
+
+    List<Integer> getTargets(int state) {
+        return aTargets.get(state);
+    }
+
+    private int newState() {
+        if (aEpsilons.size() >= aMaxStates) {
+            throw new UnsupportedOperationException("Pattern is too large for exact enumeration");
+        }
+        aEpsilons.add(new ArrayList<>(1));
+        aLabels.add(new ArrayList<>(1));
+        aTargets.add(new ArrayList<>(1));
+        return aEpsilons.size() - 1;
+    }
+
+    private void epsilon(int from, int to) {
+        aEpsilons.get(from)
+                 .add(to);
+    }
+
+    private void transition(int from, int[] label, int to) {
+        aLabels.get(from)
+               .add(label);
+        aTargets.get(from)
+                .add(to);
+    }
+
+    private void fragment(int start, int end) {
+        aStart = start;
+        aEnd = end;
+    }
+
+    /**
+     * Convert characters into sorted disjoint ranges.
+     */
+    static int[] toRanges(char[] chars) {
+        char[] sorted = chars.clone();
+        Arrays.sort(sorted);
+        int[] ranges = new int[sorted.length * 2];
+        int count = 0;
+        for (char c : sorted) {
+            if (count > 0 && c <= ranges[count - 1] + 1) {
+                ranges[count - 1] = Math.max(ranges[count - 1], c);
+            } else {
+                ranges[count++] = c;
+                ranges[count++] = c;
+            }
+        }
+        return Arrays.copyOf(ranges, count);
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        int start = newState();
+        int end = newState();
+        char[] chars = aCaseInsensitive ? node.getCaseInsensitiveSymbolSetIndexer()
+                                              .getAll()
+                                        : node.getSymbolSetIndexer()
+                                              .getAll();
+        transition(start, toRanges(chars), end);
+        fragment(start, end);
+    }
+
+    @Override
+    public void visit(Choice node) {
+        int start = newState();
+        int end = newState();
+        for (Node n : node.getNodes()) {
+            epsilon(start, build(n));
+            epsilon(aEnd, end);
+        }
+        fragment(start, end);
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        String value = node.getValue();
+        int start = newState();
+        int current = start;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int next = newState();
+            char[] chars = aCaseInsensitive ? new char[]{c, Character.toLowerCase(c), Character.toUpperCase(c)} : new char[]{c};
+            transition(current, toRanges(chars), next);
+            current = next;
+        }
+        fragment(start, current);
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        int start = newState();
+        int current = start;
+        for (int i = 0; i < node.getMin(); i++) {
+            epsilon(current, build(node.getNode()));
+            current = aEnd;
+        }
+        if (node.getMax() < 0) {
+            int loop = newState();
+            epsilon(current, loop);
+            epsilon(loop, build(node.getNode()));
+            epsilon(aEnd, loop);
+            fragment(start, loop);
+            return;
+        }
+        int end = newState();
+        epsilon(current, end);
+        for (int i = node.getMin(); i < node.getMax(); i++) {
+            epsilon(current, build(node.getNode()));
+            current = aEnd;
+            epsilon(current, end);
+        }
+        fragment(start, end);
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        int start = newState();
+        int current = start;
+        for (Node n : node.getNodes()) {
+            epsilon(current, build(n));
+            current = aEnd;
+        }
+        fragment(start, current);
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        throw new UnsupportedOperationException("Exact enumeration does not support lookarounds");
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        throw new UnsupportedOperationException("Exact enumeration does not support back references");
+    }
+
+    @Override
+    public void visit(Group node) {
+        node.getNode()
+            .visit(this);
+    }
+}
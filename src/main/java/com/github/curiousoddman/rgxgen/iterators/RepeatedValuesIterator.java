@@ -0,0 +1,120 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over concatenations of growing number of values from the fixed list - in the same order as {@link IncrementalLengthIterator}.
+ * <p>
+ * Values of the repeated element are shared between all iterators, and each element of the current value is just an index in this list.
+ * Current value is kept in a buffer and on each step only the part after the changed element is rewritten.
+ */
+public class RepeatedValuesIterator implements StringIterator {
+    private final String[]      aValues;
+    private final int           aMin;
+    private final int           aMax;
+    private final StringBuilder aBuffer = new StringBuilder();
+
+    private int[]  aIndices = new int[0];
+    private int[]  aOffsets = new int[0];
+    private int    aLength  = -1;
+    private String aCurrent;
+
+    /**
+     * @param values values of the repeated element, must not be empty
+     * @param min    minimal number of elements
+     * @param max    maximal number of elements or -1, if unbounded
+     */
+    public RepeatedValuesIterator(String[] values, int min, int max) {
+        aValues = values;
+        aMin = min;
+        aMax = max;
+    }
+
+    /**
+     * @return index of the last element that can be advanced or -1, if all elements have their last values
+     */
+    private int lastAdvancingElement() {
+        int last = aValues.length - 1;
+        for (int i = aLength - 1; i >= 0; i--) {
+            if (aIndices[i] < last) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return aLength < 0 || aLength < aMax || aMax < 0 || lastAdvancingElement() >= 0;
+    }
+
+    @Override
+    public String next() {
+        if (aLength < 0) {
+            setLength(aMin);
+        } else {
+            int i = lastAdvancingElement();
+            if (i >= 0) {
+                ++aIndices[i];
+                Arrays.fill(aIndices, i + 1, aLength, 0);
+                rewrite(i);
+            } else if (aLength < aMax || aMax < 0) {
+                setLength(aLength + 1);
+            } else {
+                throw new NoSuchElementException("No more unique values");
+            }
+        }
+        aCurrent = aBuffer.toString();
+        return aCurrent;
+    }
+
+    private void setLength(int length) {
+        if (aIndices.length < length) {
+            int capacity = Math.max(length, aIndices.length * 2);
+            aIndices = new int[capacity];
+            aOffsets = new int[capacity];
+        }
+        aLength = length;
+        Arrays.fill(aIndices, 0, length, 0);
+        rewrite(0);
+    }
+
+    /**
+     * Rewrite buffer starting from the element.
+     */
+    private void rewrite(int from) {
+        aBuffer.setLength(from == 0 ? 0 : aOffsets[from]);
+        for (int i = from; i < aLength; i++) {
+            aOffsets[i] = aBuffer.length();
+            aBuffer.append(aValues[aIndices[i]]);
+        }
+    }
+
+    @Override
+    public void reset() {
+        aLength = -1;
+        aCurrent = null;
+    }
+
+    @Override
+    public String current() {
+        return aCurrent;
+    }
+}
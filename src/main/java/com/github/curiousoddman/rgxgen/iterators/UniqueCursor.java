@@ -0,0 +1,229 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.program.GroupReferencesCollector;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.UniqueGenerationVisitor;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor over unique values of the pattern. Values are enumerated in the same order as {@link com.github.curiousoddman.rgxgen.RgxGen#iterateUnique()}.
+ * <p>
+ * All values are written into a single buffer. Pattern is enumerated like an odometer, and on each advance
+ * only the part of the value that changed is rewritten, so no strings are created.
+ * Patterns with back references are enumerated by the {@link StringIterator}, and the whole value is rewritten on each advance.
+ * <p>
+ * Cursor is not thread safe.
+ */
+public final class UniqueCursor {
+    private final CursorDigit   aRoot;
+    private final StringBuilder aBuffer = new StringBuilder();
+    private final CharSequence  aView   = new View();
+
+    private boolean aPositioned;
+    private boolean aExhausted;
+
+    /**
+     * Create cursor over unique values of the nodes tree.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     */
+    public UniqueCursor(Node node, RgxGenProperties properties) {
+        GroupReferencesCollector collector = new GroupReferencesCollector();
+        node.visit(collector);
+        if (collector.getReferencedGroups()
+                     .isEmpty()) {
+            aRoot = DigitsBuilder.build(node, properties);
+        } else {
+            // Value of the reference depends on the group - let the iterators track that
+            aRoot = new CursorDigit.Iterated(() -> uniqueStrings(node, properties));
+        }
+    }
+
+    private static StringIterator uniqueStrings(Node node, RgxGenProperties properties) {
+        UniqueGenerationVisitor visitor = new UniqueGenerationVisitor(properties);
+        node.visit(visitor);
+        return visitor.getUniqueStrings();
+    }
+
+    /**
+     * Move to the next unique value.
+     *
+     * @return true, if cursor moved to the next value, false if there are no more values
+     */
+    public boolean advance() {
+        if (aExhausted) {
+            return false;
+        }
+        if (!aPositioned) {
+            aPositioned = true;
+            aRoot.first(aBuffer);
+            return true;
+        }
+        if (aRoot.advance(aBuffer)) {
+            return true;
+        }
+        aExhausted = true;
+        aPositioned = false;
+        aBuffer.setLength(0);
+        return false;
+    }
+
+    /**
+     * Get current value. Returned sequence is a view of the cursor buffer - it changes when cursor advances.
+     * Use {@code toString()} to keep the value.
+     *
+     * @return current value
+     * @throws NoSuchElementException if cursor is not positioned on a value
+     */
+    public CharSequence current() {
+        checkPositioned();
+        return aView;
+    }
+
+    /**
+     * Append current value to the builder.
+     *
+     * @param sb builder to append value to
+     * @throws NoSuchElementException if cursor is not positioned on a value
+     */
+    public void appendTo(StringBuilder sb) {
+        checkPositioned();
+        sb.append(aBuffer);
+    }
+
+    /**
+     * Move cursor before the first value.
+     */
+    public void reset() {
+        aPositioned = false;
+        aExhausted = false;
+        aBuffer.setLength(0);
+    }
+
+    private void checkPositioned() {
+        if (!aPositioned) {
+            throw new NoSuchElementException("Cursor is not positioned on a value");
+        }
+    }
+
+    /**
+     * Read-only view of the buffer.
+     */
+    private final class View implements CharSequence {
+        @Override
+        public int length() {
+            return aBuffer.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return aBuffer.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return aBuffer.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return aBuffer.toString();
+        }
+    }
+
+    /**
+     * Builds digits of the cursor for the tree without back references.
+     */
+    private static final class DigitsBuilder implements NodeVisitor {
+        private final RgxGenProperties aProperties;
+        private final boolean          aCaseInsensitive;
+
+        private CursorDigit aResult;
+
+        static CursorDigit build(Node node, RgxGenProperties properties) {
+            DigitsBuilder builder = new DigitsBuilder(properties);
+            return builder.build(node);
+        }
+
+        private DigitsBuilder(RgxGenProperties properties) {
+            aProperties = properties;
+            aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+        }
+
+        private CursorDigit build(Node node) {
+            node.visit(this);
+            return aResult;
+        }
+
+        private CursorDigit[] build(Node[] nodes) {
+            CursorDigit[] digits = new CursorDigit[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                digits[i] = build(nodes[i]);
+            }
+            return digits;
+        }
+
+        @Override
+        public void visit(SymbolSet node) {
+            aResult = new CursorDigit.Symbols(aCaseInsensitive ? node.getCaseInsensitiveSymbolSetIndexer() : node.getSymbolSetIndexer());
+        }
+
+        @Override
+        public void visit(Choice node) {
+            aResult = new CursorDigit.Choice(build(node.getNodes()));
+        }
+
+        @Override
+        public void visit(FinalSymbol node) {
+            aResult = aCaseInsensitive
+                      ? new CursorDigit.Iterated(() -> uniqueStrings(node, aProperties))
+                      : new CursorDigit.Literal(node.getValue());
+        }
+
+        @Override
+        public void visit(Repeat node) {
+            aResult = new CursorDigit.Repeat(build(node.getNode()), node.getMin(), node.getMax());
+        }
+
+        @Override
+        public void visit(Sequence node) {
+            aResult = new CursorDigit.Sequence(build(node.getNodes()));
+        }
+
+        @Override
+        public void visit(NotSymbol node) {
+            aResult = new CursorDigit.Iterated(() -> uniqueStrings(node, aProperties));
+        }
+
+        @Override
+        public void visit(GroupRef node) {
+            throw new IllegalStateException("Back references are enumerated by iterators");
+        }
+
+        @Override
+        public void visit(Group node) {
+            aResult = build(node.getNode());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.math.BigInteger;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over unique values at positions {@code [from, to)} in the order of {@link com.github.curiousoddman.rgxgen.RgxGen#iterateUnique()}.
+ * <p>
+ * The whole state of the iterator is the position of the next value, so it can be saved with {@link #getPosition()}
+ * and iteration can be resumed later, in another process, with {@link #seek(BigInteger)}.
+ * Each value is found by its position (see {@link UniqueRanker}).
+ */
+public final class UniqueRangeIterator implements StringIterator {
+    private final UniqueRanker aRanker;
+    private final BigInteger   aFrom;
+    private final BigInteger   aTo;
+    private final boolean      aLongRange;
+    private final long         aLongTo;
+
+    private long       aLongPosition;
+    private BigInteger aPosition;
+    private String     aCurrent;
+
+    /**
+     * Create iterator over unique values at positions {@code [from, to)}.
+     *
+     * @param ranker ranker of the unique values
+     * @param from   first position, inclusive
+     * @param to     last position, exclusive, or null - to iterate till the last value
+     * @throws IllegalArgumentException if range is not valid
+     */
+    public UniqueRangeIterator(UniqueRanker ranker, BigInteger from, BigInteger to) {
+        BigInteger end = ranker.getCount()
+                               .orElse(null);
+        if (to != null && (end == null || to.compareTo(end) < 0)) {
+            end = to;
+        }
+        if (from.signum() < 0 || end != null && from.compareTo(end) > 0) {
+            throw new IllegalArgumentException("Invalid range of positions: [" + from + ", " + end + ')');
+        }
+        aRanker = ranker;
+        aFrom = from;
+        aTo = end;
+        aLongRange = end != null && end.bitLength() < Long.SIZE;
+        aLongTo = aLongRange ? end.longValue() : -1;
+        setPosition(from);
+    }
+
+    /**
+     * @return position of the value that will be returned by the next call to {@link #next()}
+     */
+    public BigInteger getPosition() {
+        return aLongRange ? BigInteger.valueOf(aLongPosition) : aPosition;
+    }
+
+    /**
+     * Move iterator to the position - the next call to {@link #next()} will return value at this position.
+     *
+     * @param position position within the range of the iterator
+     * @throws IllegalArgumentException if position is outside of the range
+     */
+    public void seek(BigInteger position) {
+        if (position.compareTo(aFrom) < 0 || aTo != null && position.compareTo(aTo) > 0) {
+            throw new IllegalArgumentException("Position " + position + " is outside of range [" + aFrom + ", " + aTo + ')');
+        }
+        setPosition(position);
+    }
+
+    private void setPosition(BigInteger position) {
+        if (aLongRange) {
+            aLongPosition = position.longValue();
+        } else {
+            aPosition = position;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (aLongRange) {
+            return aLongPosition < aLongTo;
+        }
+        return aTo == null || aPosition.compareTo(aTo) < 0;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more unique values");
+        }
+        if (aLongRange) {
+            aCurrent = aRanker.get(aLongPosition++);
+        } else {
+            aCurrent = aRanker.get(aPosition);
+            aPosition = aPosition.add(BigInteger.ONE);
+        }
+        return aCurrent;
+    }
+
+    @Override
+    public void reset() {
+        setPosition(aFrom);
+        aCurrent = null;
+    }
+
+    @Override
+    public String current() {
+        return aCurrent;
+    }
+}
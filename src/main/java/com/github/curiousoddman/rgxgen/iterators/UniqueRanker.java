@@ -0,0 +1,614 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.program.GroupReferencesCollector;
+import com.github.curiousoddman.rgxgen.util.Util;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.UniqueGenerationVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Random access to unique values of the pattern: value at position {@code n} is the value that {@link com.github.curiousoddman.rgxgen.RgxGen#iterateUnique()}
+ * returns after skipping {@code n} values.
+ * <p>
+ * Each node of the tree is paired with the exact number of unique values of its subtree. These counts are computed once,
+ * when ranker is created, and then every lookup descends the tree once - choosing an alternative by subtracting counts of previous ones,
+ * splitting index of a sequence into mixed radix digits and so on. When total count fits into {@code long}, lookups use {@code long} arithmetic only.
+ * <p>
+ * Counts are structural - same as the number of values the iterators enumerate, duplicates included.
+ * Values of the lookaround patterns cannot be counted - these are found by iterating.
+ * <p>
+ * Ranker is immutable and can be shared between threads.
+ */
+public final class UniqueRanker {
+    private final Rank    aRoot;
+    private final boolean aHasReferences;
+    private final int     aGroupsCount;
+
+    /**
+     * Create ranker for unique values of the nodes tree.
+     *
+     * @param node       root of the tree
+     * @param properties properties used for the generation
+     */
+    public UniqueRanker(Node node, RgxGenProperties properties) {
+        GroupReferencesCollector collector = new GroupReferencesCollector();
+        node.visit(collector);
+        BitSet referencedGroups = collector.getReferencedGroups();
+        aHasReferences = !referencedGroups.isEmpty();
+        aGroupsCount = referencedGroups.length();
+        aRoot = new RankBuilder(properties, referencedGroups).build(node);
+    }
+
+    /**
+     * @return exact number of unique values or empty, if it is infinite
+     */
+    public Optional<BigInteger> getCount() {
+        return Optional.ofNullable(aRoot.aCount);
+    }
+
+    /**
+     * Get unique value at the position.
+     *
+     * @param index position of the value
+     * @return unique value
+     * @throws IndexOutOfBoundsException if index is negative or not less than number of unique values
+     */
+    public String get(long index) {
+        StringBuilder sb = new StringBuilder();
+        appendTo(index, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Get unique value at the position.
+     *
+     * @param index position of the value
+     * @return unique value
+     * @throws IndexOutOfBoundsException if index is negative or not less than number of unique values
+     */
+    public String get(BigInteger index) {
+        StringBuilder sb = new StringBuilder();
+        appendTo(index, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append unique value at the position to the builder.
+     *
+     * @param index position of the value
+     * @param sb    builder to append value to
+     * @throws IndexOutOfBoundsException if index is negative or not less than number of unique values
+     */
+    public void appendTo(long index, StringBuilder sb) {
+        if (aRoot.aLongCount < 0) {
+            appendTo(BigInteger.valueOf(index), sb);
+            return;
+        }
+        if (index < 0 || index >= aRoot.aLongCount) {
+            throw outOfRange(BigInteger.valueOf(index));
+        }
+        aRoot.append(index, sb, newGroups());
+    }
+
+    /**
+     * Append unique value at the position to the builder.
+     *
+     * @param index position of the value
+     * @param sb    builder to append value to
+     * @throws IndexOutOfBoundsException if index is negative or not less than number of unique values
+     */
+    public void appendTo(BigInteger index, StringBuilder sb) {
+        if (index.signum() < 0 || aRoot.aCount != null && index.compareTo(aRoot.aCount) >= 0) {
+            throw outOfRange(index);
+        }
+        if (aRoot.aLongCount >= 0) {
+            aRoot.append(index.longValue(), sb, newGroups());
+        } else {
+            aRoot.append(index, sb, newGroups());
+        }
+    }
+
+    private String[] newGroups() {
+        return aHasReferences ? new String[aGroupsCount] : null;
+    }
+
+    private IndexOutOfBoundsException outOfRange(BigInteger index) {
+        return new IndexOutOfBoundsException("Index " + index + " is out of range. Number of unique values: " + aRoot.aCount);
+    }
+
+    /**
+     * Subtree paired with the number of its unique values.
+     */
+    private abstract static class Rank {
+        /**
+         * Number of values or null, if it is infinite
+         */
+        final BigInteger aCount;
+        /**
+         * Number of values or -1, if it does not fit into long
+         */
+        final long       aLongCount;
+
+        Rank(BigInteger count) {
+            aCount = count;
+            aLongCount = count != null && count.bitLength() < Long.SIZE ? count.longValue() : -1;
+        }
+
+        /**
+         * Append value at the position. Used only when count of the root fits into long - so does the count of every visited subtree.
+         */
+        abstract void append(long index, StringBuilder sb, String[] groups);
+
+        abstract void append(BigInteger index, StringBuilder sb, String[] groups);
+    }
+
+    private static final class LiteralRank extends Rank {
+        private final String aValue;
+
+        LiteralRank(String value) {
+            super(BigInteger.ONE);
+            aValue = value;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            sb.append(aValue);
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            sb.append(aValue);
+        }
+    }
+
+    /**
+     * Case variations of the literal in the order of {@link CaseVariationIterator}: bits of the index select upper case letters,
+     * the lowest bit - the first letter.
+     */
+    private static final class CaseVariationsRank extends Rank {
+        private final String aLowerCase;
+        private final int[]  aPositions;
+
+        private CaseVariationsRank(String lowerCase, int[] positions) {
+            super(BigInteger.ONE.shiftLeft(positions.length));
+            aLowerCase = lowerCase;
+            aPositions = positions;
+        }
+
+        static Rank of(String value) {
+            String lowerCase = value.toLowerCase();
+            int[] positions = new int[lowerCase.length()];
+            int count = 0;
+            OptionalInt position = Util.indexOfNextCaseSensitiveCharacter(lowerCase, 0);
+            while (position.isPresent()) {
+                positions[count++] = position.getAsInt();
+                position = Util.indexOfNextCaseSensitiveCharacter(lowerCase, position.getAsInt() + 1);
+            }
+            if (count == 0) {
+                return new LiteralRank(value);
+            }
+            int[] trimmed = new int[count];
+            System.arraycopy(positions, 0, trimmed, 0, count);
+            return new CaseVariationsRank(lowerCase, trimmed);
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            int start = sb.length();
+            sb.append(aLowerCase);
+            for (int i = 0; i < aPositions.length && i < Long.SIZE; i++) {
+                if ((index >>> i & 1) != 0) {
+                    toUpperCase(sb, start + aPositions[i]);
+                }
+            }
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            int start = sb.length();
+            sb.append(aLowerCase);
+            for (int i = 0; i < aPositions.length; i++) {
+                if (index.testBit(i)) {
+                    toUpperCase(sb, start + aPositions[i]);
+                }
+            }
+        }
+
+        private static void toUpperCase(StringBuilder sb, int position) {
+            sb.setCharAt(position, Character.toUpperCase(sb.charAt(position)));
+        }
+    }
+
+    private static final class SymbolsRank extends Rank {
+        private final SymbolSetIndexer aIndexer;
+
+        SymbolsRank(SymbolSetIndexer indexer) {
+            super(BigInteger.valueOf(indexer.size()));
+            aIndexer = indexer;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            sb.append(aIndexer.get((int) index));
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            sb.append(aIndexer.get(index.intValue()));
+        }
+    }
+
+    /**
+     * Index of a sequence is a mixed radix number - the last element changes fastest.
+     * Elements before the last infinite element never change - the iterator never gets past the first value of it.
+     */
+    private static final class SequenceRank extends Rank {
+        private final Rank[] aRanks;
+        private final int    aLastInfinite;
+
+        SequenceRank(Rank[] ranks) {
+            super(product(ranks));
+            aRanks = ranks;
+            int lastInfinite = -1;
+            for (int i = 0; i < ranks.length; i++) {
+                if (ranks[i].aCount == null) {
+                    lastInfinite = i;
+                }
+            }
+            aLastInfinite = lastInfinite;
+        }
+
+        private static BigInteger product(Rank[] ranks) {
+            BigInteger product = BigInteger.ONE;
+            for (Rank rank : ranks) {
+                if (rank.aCount == null) {
+                    product = null;
+                } else if (rank.aCount.signum() == 0) {
+                    return BigInteger.ZERO;
+                } else if (product != null) {
+                    product = product.multiply(rank.aCount);
+                }
+            }
+            return product;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            long[] digits = new long[aRanks.length];
+            for (int i = aRanks.length - 1; i >= 0; i--) {
+                long count = aRanks[i].aLongCount;
+                digits[i] = index % count;
+                index /= count;
+            }
+            for (int i = 0; i < aRanks.length; i++) {
+                aRanks[i].append(digits[i], sb, groups);
+            }
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            BigInteger[] digits = new BigInteger[aRanks.length];
+            for (int i = aRanks.length - 1; i > aLastInfinite; i--) {
+                BigInteger[] qr = index.divideAndRemainder(aRanks[i].aCount);
+                digits[i] = qr[1];
+                index = qr[0];
+            }
+            if (aLastInfinite >= 0) {
+                digits[aLastInfinite] = index;
+            }
+            for (int i = 0; i < aRanks.length; i++) {
+                aRanks[i].append(i < aLastInfinite ? BigInteger.ZERO : digits[i], sb, groups);
+            }
+        }
+    }
+
+    /**
+     * Alternatives are enumerated one after another. Alternatives after the infinite one are never reached.
+     */
+    private static final class ChoiceRank extends Rank {
+        private final Rank[] aRanks;
+
+        ChoiceRank(Rank[] ranks) {
+            super(sum(ranks));
+            aRanks = ranks;
+        }
+
+        private static BigInteger sum(Rank[] ranks) {
+            BigInteger sum = BigInteger.ZERO;
+            for (Rank rank : ranks) {
+                if (rank.aCount == null) {
+                    return null;
+                }
+                sum = sum.add(rank.aCount);
+            }
+            return sum;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            for (Rank rank : aRanks) {
+                if (index < rank.aLongCount) {
+                    rank.append(index, sb, groups);
+                    return;
+                }
+                index -= rank.aLongCount;
+            }
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            for (Rank rank : aRanks) {
+                if (rank.aCount == null || index.compareTo(rank.aCount) < 0) {
+                    rank.append(index, sb, groups);
+                    return;
+                }
+                index = index.subtract(rank.aCount);
+            }
+        }
+    }
+
+    /**
+     * Values are enumerated by length: first all values of the minimal length, then all values that are one element longer and so on.
+     * Values of the same length are mixed radix numbers with the same radix for all elements.
+     */
+    private static final class RepeatRank extends Rank {
+        private final Rank aRank;
+        private final int  aMin;
+        private final int  aMax;
+
+        RepeatRank(Rank rank, int min, int max) {
+            super(count(rank.aCount, min, max));
+            aRank = rank;
+            aMin = min;
+            aMax = max;
+        }
+
+        private static BigInteger count(BigInteger count, int min, int max) {
+            if (count != null && count.signum() == 0 || max == 0) {
+                return min == 0 ? BigInteger.ONE : BigInteger.ZERO;
+            }
+            if (count == null || max < 0) {
+                return null;
+            }
+            return Util.geometricSum(count, min, max);
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            long count = aRank.aLongCount;
+            int length = aMin;
+            long lengthCount = pow(count, length);
+            while (index >= lengthCount) {
+                index -= lengthCount;
+                length++;
+                lengthCount = Math.multiplyExact(lengthCount, count);
+            }
+            long[] digits = new long[length];
+            for (int i = length - 1; i >= 0; i--) {
+                digits[i] = index % count;
+                index /= count;
+            }
+            for (long digit : digits) {
+                aRank.append(digit, sb, groups);
+            }
+        }
+
+        private static long pow(long value, int exponent) {
+            long result = 1;
+            for (int i = 0; i < exponent; i++) {
+                result = Math.multiplyExact(result, value);
+            }
+            return result;
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            BigInteger count = aRank.aCount;
+            int length;
+            if (count == null) {
+                // All elements but the last stay on their first value
+                length = aMin == 0 && index.signum() == 0 ? 0 : Math.max(aMin, 1);
+                if (length == 1 && aMin == 0) {
+                    index = index.subtract(BigInteger.ONE);
+                }
+                for (int i = 1; i < length; i++) {
+                    aRank.append(BigInteger.ZERO, sb, groups);
+                }
+            } else if (count.equals(BigInteger.ONE)) {
+                length = aMin + index.intValueExact();
+                index = BigInteger.ZERO;
+            } else {
+                length = aMin;
+                BigInteger lengthCount = count.pow(length);
+                while (index.compareTo(lengthCount) >= 0) {
+                    index = index.subtract(lengthCount);
+                    length++;
+                    lengthCount = lengthCount.multiply(count);
+                }
+            }
+            if (count == null) {
+                if (length > 0) {
+                    aRank.append(index, sb, groups);
+                }
+                return;
+            }
+            BigInteger[] digits = new BigInteger[length];
+            for (int i = length - 1; i >= 0; i--) {
+                BigInteger[] qr = index.divideAndRemainder(count);
+                digits[i] = qr[1];
+                index = qr[0];
+            }
+            for (BigInteger digit : digits) {
+                aRank.append(digit, sb, groups);
+            }
+        }
+    }
+
+    private static final class GroupRank extends Rank {
+        private final Rank aRank;
+        private final int  aIndex;
+
+        GroupRank(Rank rank, int index) {
+            super(rank.aCount);
+            aRank = rank;
+            aIndex = index;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            int start = sb.length();
+            aRank.append(index, sb, groups);
+            groups[aIndex] = sb.substring(start);
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            int start = sb.length();
+            aRank.append(index, sb, groups);
+            groups[aIndex] = sb.substring(start);
+        }
+    }
+
+    private static final class ReferenceRank extends Rank {
+        private final int aIndex;
+
+        ReferenceRank(int index) {
+            super(BigInteger.ONE);
+            aIndex = index;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            if (groups[aIndex] != null) {
+                sb.append(groups[aIndex]);
+            }
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            append(0L, sb, groups);
+        }
+    }
+
+    /**
+     * Values that cannot be counted. Value at the position is found by iterating.
+     */
+    private static final class IteratedRank extends Rank {
+        private final Node             aNode;
+        private final RgxGenProperties aProperties;
+
+        IteratedRank(Node node, RgxGenProperties properties) {
+            super(null);
+            aNode = node;
+            aProperties = properties;
+        }
+
+        @Override
+        void append(long index, StringBuilder sb, String[] groups) {
+            UniqueGenerationVisitor visitor = new UniqueGenerationVisitor(aProperties);
+            aNode.visit(visitor);
+            StringIterator iterator = visitor.getUniqueStrings();
+            for (long i = 0; i < index; i++) {
+                iterator.next();
+            }
+            sb.append(iterator.next());
+        }
+
+        @Override
+        void append(BigInteger index, StringBuilder sb, String[] groups) {
+            append(index.longValueExact(), sb, groups);
+        }
+    }
+
+    private static final class RankBuilder implements NodeVisitor {
+        private final RgxGenProperties aProperties;
+        private final boolean          aCaseInsensitive;
+        private final BitSet           aReferencedGroups;
+
+        private Rank aResult;
+
+        private RankBuilder(RgxGenProperties properties, BitSet referencedGroups) {
+            aProperties = properties;
+            aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+            aReferencedGroups = referencedGroups;
+        }
+
+        private Rank build(Node node) {
+            node.visit(this);
+            return aResult;
+        }
+
+        private Rank[] build(Node[] nodes) {
+            Rank[] ranks = new Rank[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                ranks[i] = build(nodes[i]);
+            }
+            return ranks;
+        }
+
+        @Override
+        public void visit(SymbolSet node) {
+            aResult = new SymbolsRank(aCaseInsensitive ? node.getCaseInsensitiveSymbolSetIndexer() : node.getSymbolSetIndexer());
+        }
+
+        @Override
+        public void visit(Choice node) {
+            aResult = new ChoiceRank(build(node.getNodes()));
+        }
+
+        @Override
+        public void visit(FinalSymbol node) {
+            aResult = aCaseInsensitive ? CaseVariationsRank.of(node.getValue()) : new LiteralRank(node.getValue());
+        }
+
+        @Override
+        public void visit(Repeat node) {
+            aResult = new RepeatRank(build(node.getNode()), node.getMin(), node.getMax());
+        }
+
+        @Override
+        public void visit(Sequence node) {
+            aResult = new SequenceRank(build(node.getNodes()));
+        }
+
+        @Override
+        public void visit(NotSymbol node) {
+            aResult = new IteratedRank(node, aProperties);
+        }
+
+        @Override
+        public void visit(GroupRef node) {
+            aResult = new ReferenceRank(node.getIndex());
+        }
+
+        @Override
+        public void visit(Group node) {
+            Rank rank = build(node.getNode());
+            aResult = aReferencedGroups.get(node.getIndex()) ? new GroupRank(rank, node.getIndex()) : rank;
+        }
+    }
+}
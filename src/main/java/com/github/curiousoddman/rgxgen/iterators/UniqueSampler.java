@@ -0,0 +1,149 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.math.BigInteger;
+import java.util.NoSuchElementException;
+
+/**
+ * Unique values of the pattern in pseudo-random order. Each value is returned at most once, without keeping track of the returned values.
+ * <p>
+ * Sampler walks a keyed pseudo-random permutation of positions {@code [0, count)} and returns value at the permuted position (see {@link UniqueRanker}).
+ * Order is defined by the seed only, so work can be split between several samplers with the same seed by the ranges of positions - see {@link #shard(long, long)}.
+ * <p>
+ * Sampler is not thread safe, but its shards can be used concurrently.
+ */
+public final class UniqueSampler implements StringIterator {
+    private final UniqueRanker     aRanker;
+    private final IndexPermutation aPermutation;
+    private final long             aFrom;
+    private final long             aTo;
+
+    private long   aPosition;
+    private String aCurrent;
+
+    /**
+     * Create sampler over all unique values of the pattern.
+     *
+     * @param ranker ranker of the unique values
+     * @param seed   seed that defines the order of values
+     * @throws UnsupportedOperationException if the number of unique values is infinite
+     */
+    public UniqueSampler(UniqueRanker ranker, long seed) {
+        this(ranker, newPermutation(ranker, seed), 0, Long.MAX_VALUE);
+    }
+
+    private UniqueSampler(UniqueRanker ranker, IndexPermutation permutation, long from, long to) {
+        aRanker = ranker;
+        aPermutation = permutation;
+        aFrom = from;
+        aTo = permutation == null ? 0 : BigInteger.valueOf(to)
+                                                   .min(permutation.getSize())
+                                                   .longValue();
+        aPosition = aFrom;
+    }
+
+    private static IndexPermutation newPermutation(UniqueRanker ranker, long seed) {
+        BigInteger count = ranker.getCount()
+                                 .orElseThrow(() -> new UnsupportedOperationException("Pattern has infinite number of unique values"));
+        return count.signum() == 0 ? null : new IndexPermutation(count, seed);
+    }
+
+    /**
+     * @return number of unique values of the pattern
+     */
+    public BigInteger getCount() {
+        return aPermutation == null ? BigInteger.ZERO : aPermutation.getSize();
+    }
+
+    /**
+     * Get the value at the position of the sampling order.
+     *
+     * @param position position in the sampling order
+     * @return unique value
+     * @throws IndexOutOfBoundsException if position is negative or not less than number of unique values
+     */
+    public String get(long position) {
+        checkPosition(BigInteger.valueOf(position));
+        return valueAt(position);
+    }
+
+    /**
+     * Get the value at the position of the sampling order.
+     *
+     * @param position position in the sampling order
+     * @return unique value
+     * @throws IndexOutOfBoundsException if position is negative or not less than number of unique values
+     */
+    public String get(BigInteger position) {
+        checkPosition(position);
+        return aRanker.get(aPermutation.apply(position));
+    }
+
+    private String valueAt(long position) {
+        return aPermutation.isLongRange()
+               ? aRanker.get(aPermutation.apply(position))
+               : aRanker.get(aPermutation.apply(BigInteger.valueOf(position)));
+    }
+
+    private void checkPosition(BigInteger position) {
+        if (position.signum() < 0 || position.compareTo(getCount()) >= 0) {
+            throw new IndexOutOfBoundsException("Position " + position + " is out of range. Number of unique values: " + getCount());
+        }
+    }
+
+    /**
+     * Create sampler over the range of positions of this sampler's order.
+     * Shards of the disjoint ranges return disjoint sets of values.
+     *
+     * @param from first position of the range, inclusive
+     * @param to   last position of the range, exclusive
+     * @return sampler over the range of positions
+     * @throws IllegalArgumentException if range is not valid
+     */
+    public UniqueSampler shard(long from, long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range of positions: [" + from + ", " + to + ')');
+        }
+        return new UniqueSampler(aRanker, aPermutation, from, to);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return aPosition < aTo;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more unique values");
+        }
+        aCurrent = valueAt(aPosition++);
+        return aCurrent;
+    }
+
+    @Override
+    public void reset() {
+        aPosition = aFrom;
+        aCurrent = null;
+    }
+
+    @Override
+    public String current() {
+        return aCurrent;
+    }
+}
@@ -17,25 +17,78 @@ package com.github.curiousoddman.rgxgen.iterators.suppliers;
 /* **************************************************************************/
 
 import com.github.curiousoddman.rgxgen.iterators.IncrementalLengthIterator;
+import com.github.curiousoddman.rgxgen.iterators.RepeatedValuesIterator;
 import com.github.curiousoddman.rgxgen.iterators.StringIterator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 public class IncrementalLengthIteratorSupplier implements Supplier<StringIterator> {
+    /**
+     * Values of the repeated element are shared only if there are not more than this number of them.
+     */
+    public static final int MAX_SHARED_VALUES = 4096;
 
     private final int                      aMin;
     private final int                      aMax;
     private final Supplier<StringIterator> aIteratorSupplier;
+    private final BooleanSupplier          aReuseSlots;
+    private final BooleanSupplier          aShareValues;
+
+    private boolean  aValuesCollected;
+    private String[] aValues;
 
     public IncrementalLengthIteratorSupplier(Supplier<StringIterator> iteratorSupplier, int min, int max) {
+        this(iteratorSupplier, min, max, () -> false, () -> false);
+    }
+
+    /**
+     * @param iteratorSupplier supplier of the child iterators
+     * @param min              minimal number of elements
+     * @param max              maximal number of elements or -1, if unbounded
+     * @param reuseSlots       whether iterators can reuse child iterators. It is checked when iterator is created
+     * @param shareValues      whether values of the child iterators are always the same, so they can be collected once and shared
+     *                         between iterators. It is checked when iterator is created
+     */
+    public IncrementalLengthIteratorSupplier(Supplier<StringIterator> iteratorSupplier, int min, int max, BooleanSupplier reuseSlots, BooleanSupplier shareValues) {
         aMin = min;
         aMax = max;
         aIteratorSupplier = iteratorSupplier;
+        aReuseSlots = reuseSlots;
+        aShareValues = shareValues;
     }
 
+    /**
+     * Collect values of the child iterator once.
+     *
+     * @return values or null, if there are too many of them or none
+     */
+    private String[] getValues() {
+        if (!aValuesCollected) {
+            aValuesCollected = true;
+            StringIterator iterator = aIteratorSupplier.get();
+            List<String> values = new ArrayList<>();
+            while (iterator.hasNext() && values.size() <= MAX_SHARED_VALUES) {
+                values.add(iterator.next());
+            }
+            if (!values.isEmpty() && values.size() <= MAX_SHARED_VALUES) {
+                aValues = values.toArray(new String[0]);
+            }
+        }
+        return aValues;
+    }
 
     @Override
     public StringIterator get() {
-        return new IncrementalLengthIterator(aIteratorSupplier, aMin, aMax);
+        // Repetition {0} is left to IncrementalLengthIterator - it returns one more value after the empty one
+        if (aMax != 0 && aShareValues.getAsBoolean()) {
+            String[] values = getValues();
+            if (values != null) {
+                return new RepeatedValuesIterator(values, aMin, aMax);
+            }
+        }
+        return new IncrementalLengthIterator(aIteratorSupplier, aMin, aMax, aReuseSlots.getAsBoolean());
     }
 }
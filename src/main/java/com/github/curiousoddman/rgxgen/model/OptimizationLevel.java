@@ -0,0 +1,41 @@
+package com.github.curiousoddman.rgxgen.model;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+/**
+ * Level of the optimizations applied to the nodes tree before generation.
+ */
+public enum OptimizationLevel {
+    /**
+     * Generate from the tree exactly as it was parsed.
+     */
+    NONE,
+    /**
+     * Simplify the tree so that it generates exactly the same values for the same seed.
+     */
+    PRESERVE_VALUES,
+    /**
+     * Additionally remove random choices that do not affect generated value, e.g. choice with a single alternative.
+     * Probability of each value stays the same, but the same seed may produce different values.
+     */
+    PRESERVE_DISTRIBUTION,
+    /**
+     * Additionally merge alternatives in a way that changes probability of values, e.g. {@code a|b|[a-z]} into {@code [a-z]}.
+     * All generated values still match the pattern.
+     */
+    CHANGE_DISTRIBUTION
+}
@@ -0,0 +1,63 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+/**
+ * Program for patterns that generate values of the same layout, e.g. {@code \d{4}-\d{2}-\d{2}}.
+ * All literal characters are written into the template in advance, generation only puts random symbols at known positions.
+ */
+final class FixedLayoutTemplate {
+    private final char[]             aChars;
+    private final int[]              aPositions;
+    private final SymbolSetIndexer[] aIndexers;
+
+    FixedLayoutTemplate(char[] chars, int[] positions, SymbolSetIndexer[] indexers) {
+        aChars = chars;
+        aPositions = positions;
+        aIndexers = indexers;
+    }
+
+    /**
+     * @return copy of the template to be filled by {@link #fill(RandomSource, char[])}
+     */
+    char[] newBuffer() {
+        return aChars.clone();
+    }
+
+    /**
+     * Put random symbols into the buffer. Literal characters in the buffer are never modified,
+     * so the same buffer can be filled again for the next value.
+     *
+     * @param random random to use for the generation
+     * @param buffer buffer created by {@link #newBuffer()}
+     */
+    void fill(RandomSource random, char[] buffer) {
+        int[] positions = aPositions;
+        SymbolSetIndexer[] indexers = aIndexers;
+        for (int i = 0; i < positions.length; i++) {
+            SymbolSetIndexer indexer = indexers[i];
+            buffer[positions[i]] = indexer.get(random.nextInt(indexer.size()));
+        }
+    }
+
+    int length() {
+        return aChars.length;
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds {@link FixedLayoutTemplate} for the tree.
+ * Only trees without choices, variable repetitions, group references and not symbols have fixed layout.
+ * Template consumes random values in the same order as {@link com.github.curiousoddman.rgxgen.visitors.GenerationVisitor}.
+ */
+class FixedLayoutTemplateBuilder implements NodeVisitor {
+    /**
+     * Longer values are generated by the program - the template would take too much memory.
+     */
+    static final int MAX_TEMPLATE_LENGTH = 4096;
+
+    private final StringBuilder          aChars     = new StringBuilder();
+    private final List<Integer>          aPositions = new ArrayList<>();
+    private final List<SymbolSetIndexer> aIndexers  = new ArrayList<>();
+    private final boolean                aCaseInsensitive;
+    private final int                    aFlattenLimit;
+
+    private boolean aFixed = true;
+
+    FixedLayoutTemplateBuilder(RgxGenProperties properties) {
+        aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+        aFlattenLimit = RgxGenOption.SYMBOL_SET_FLATTEN_LIMIT.getFromProperties(properties);
+    }
+
+    private boolean isTooLong() {
+        if (aChars.length() > MAX_TEMPLATE_LENGTH) {
+            aFixed = false;
+        }
+        return !aFixed;
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        if (isTooLong()) {
+            return;
+        }
+        aPositions.add(aChars.length());
+        aIndexers.add(ProgramCompiler.getIndexer(node, aCaseInsensitive, aFlattenLimit));
+        aChars.append('\0');
+    }
+
+    @Override
+    public void visit(Choice node) {
+        aFixed = false;
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        if (isTooLong()) {
+            return;
+        }
+        String value = node.getValue();
+        if (aCaseInsensitive) {
+            // Case of letters is changed randomly
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isUpperCase(c) || Character.isLowerCase(c)) {
+                    aFixed = false;
+                    return;
+                }
+            }
+        }
+        aChars.append(value);
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        if (node.getMax() == -1 || node.getMin() < node.getMax()) {
+            aFixed = false;
+            return;
+        }
+        for (int i = 0; i < node.getMin() && !isTooLong(); i++) {
+            node.getNode().visit(this);
+        }
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        for (Node n : node.getNodes()) {
+            if (isTooLong()) {
+                return;
+            }
+            n.visit(this);
+        }
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        aFixed = false;
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        aFixed = false;
+    }
+
+    @Override
+    public void visit(Group node) {
+        node.getNode().visit(this);
+    }
+
+    /**
+     * @return template or {@code null} if visited tree does not have fixed layout
+     */
+    FixedLayoutTemplate getTemplate() {
+        if (isTooLong()) {
+            return null;
+        }
+        int[] positions = new int[aPositions.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = aPositions.get(i);
+        }
+        char[] chars = new char[aChars.length()];
+        aChars.getChars(0, chars.length, chars, 0);
+        return new FixedLayoutTemplate(chars, positions, aIndexers.toArray(new SymbolSetIndexer[0]));
+    }
+}
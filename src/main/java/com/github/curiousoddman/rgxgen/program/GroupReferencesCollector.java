@@ -0,0 +1,89 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+
+import java.util.BitSet;
+
+/**
+ * Collects indices of groups that are referenced by {@link GroupRef} nodes.
+ * Values of other groups are never read, so there is no need to capture them during generation.
+ */
+public class GroupReferencesCollector implements NodeVisitor {
+    private final BitSet aReferencedGroups = new BitSet();
+    private       boolean aHasNotSymbols;
+
+    @Override
+    public void visit(SymbolSet node) {
+        // Nothing to collect
+    }
+
+    @Override
+    public void visit(Choice node) {
+        for (Node n : node.getNodes()) {
+            n.visit(this);
+        }
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        // Nothing to collect
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        node.getNode().visit(this);
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        for (Node n : node.getNodes()) {
+            n.visit(this);
+        }
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        aHasNotSymbols = true;
+        node.getNode().visit(this);
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        aReferencedGroups.set(node.getIndex());
+    }
+
+    @Override
+    public void visit(Group node) {
+        node.getNode().visit(this);
+    }
+
+    public BitSet getReferencedGroups() {
+        return aReferencedGroups;
+    }
+
+    /**
+     * Not matching generation uses values of all groups (not only referenced), so all of them should be captured.
+     *
+     * @return true if there are not symbols in the tree
+     */
+    public boolean hasNotSymbols() {
+        return aHasNotSymbols;
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+/**
+ * Instructions of the generation program.
+ * Each instruction is a single int in the code array followed by its operands (described for each instruction).
+ */
+public final class OpCode {
+    /**
+     * Stop the execution. No operands.
+     */
+    public static final int HALT = 0;
+
+    /**
+     * Append literal. Operands: index of the literal.
+     */
+    public static final int LITERAL = 1;
+
+    /**
+     * Append literal with randomly changed case of the letters. Operands: index of the literal.
+     */
+    public static final int LITERAL_CASE_INSENSITIVE = 2;
+
+    /**
+     * Append random character from the symbol set. Operands: index of the symbol set indexer.
+     */
+    public static final int SYMBOL_SET = 3;
+
+    /**
+     * Jump to random branch. Operands: number of branches N, followed by N addresses of branches.
+     */
+    public static final int CHOICE = 4;
+
+    /**
+     * Unconditional jump. Operands: address.
+     */
+    public static final int JUMP = 5;
+
+    /**
+     * Select number of repetitions and push it to stack, or jump to the end when zero.
+     * Operands: min repetitions, random range (0 - when number of repetitions is fixed), address after the loop.
+     */
+    public static final int REPEAT = 6;
+
+    /**
+     * Decrement repetitions counter on top of stack and jump to the start of the loop, if it is not zero. Pops counter otherwise.
+     * Operands: address of the loop start.
+     */
+    public static final int REPEAT_LOOP = 7;
+
+    /**
+     * Push current length of generated value to stack. No operands.
+     */
+    public static final int GROUP_START = 8;
+
+    /**
+     * Pop group start from stack and save start and end of the group value. Operands: group slot.
+     */
+    public static final int GROUP_END = 9;
+
+    /**
+     * Append value of the group. Operands: group slot.
+     */
+    public static final int GROUP_REF = 10;
+
+    /**
+     * Generate not matching value for the node. Operands: index of the node.
+     */
+    public static final int NOT_SYMBOL = 11;
+
+    /**
+     * Select number of repetitions and append that many random characters from the symbol set.
+     * Operands: min repetitions, random range (0 - when number of repetitions is fixed), index of the symbol set indexer.
+     */
+    public static final int REPEAT_SYMBOL_SET = 12;
+
+    /**
+     * Append random literal. Operands: number of literals N, followed by N indices of literals.
+     */
+    public static final int LITERAL_CHOICE = 13;
+
+    private OpCode() {
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.NotSymbol;
+import com.github.curiousoddman.rgxgen.visitors.LengthAnalysisVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+/**
+ * Flat representation of the nodes tree: array of instructions (see {@link OpCode}) and tables of their operands.
+ * Program is immutable and can be shared between threads.
+ */
+public final class Program {
+    /**
+     * Buffers are not presized above this limit. Longer values will grow the buffer as usual.
+     */
+    private static final int MAX_PRESIZED_CAPACITY = 4096;
+    private static final int DEFAULT_CAPACITY      = 16;
+
+    private final int[]              aCode;
+    private final String[]           aLiterals;
+    private final SymbolSetIndexer[] aIndexers;
+    private final NotSymbol[]        aNotSymbols;
+    private final int                aStackSize;
+    private final int                aMaxRunLength;
+    private final int[]              aSlotGroups;
+    private final RgxGenProperties   aProperties;
+
+    private final long                aMinLength;
+    private final long                aMaxLength;
+    private final double              aExpectedLength;
+    private final int                 aCapacity;
+    private final FixedLayoutTemplate aTemplate;
+
+    Program(int[] code, String[] literals, SymbolSetIndexer[] indexers, NotSymbol[] notSymbols, int stackSize, int maxRunLength, int[] slotGroups, RgxGenProperties properties,
+            LengthAnalysisVisitor lengths, FixedLayoutTemplate template) {
+        aCode = code;
+        aLiterals = literals;
+        aIndexers = indexers;
+        aNotSymbols = notSymbols;
+        aStackSize = stackSize;
+        aMaxRunLength = maxRunLength;
+        aSlotGroups = slotGroups;
+        aProperties = properties;
+        aTemplate = template;
+        if (lengths == null) {
+            aMinLength = 0;
+            aMaxLength = LengthAnalysisVisitor.UNBOUNDED;
+            aExpectedLength = 0;
+        } else {
+            aMinLength = lengths.getMinLength();
+            aMaxLength = lengths.getMaxLength();
+            aExpectedLength = lengths.getExpectedLength();
+        }
+        aCapacity = computeCapacity(aMaxLength, aExpectedLength);
+    }
+
+    /**
+     * Compute initial capacity for the buffers to generate values into.
+     *
+     * @param maxLength      maximal length of values or {@link LengthAnalysisVisitor#UNBOUNDED}
+     * @param expectedLength expected length of values
+     * @return capacity
+     */
+    public static int computeCapacity(long maxLength, double expectedLength) {
+        if (maxLength != LengthAnalysisVisitor.UNBOUNDED && maxLength <= MAX_PRESIZED_CAPACITY) {
+            return (int) maxLength;
+        }
+        // Values might be longer, but most of them will fit
+        return (int) Math.max(DEFAULT_CAPACITY, Math.min(MAX_PRESIZED_CAPACITY, Math.ceil(expectedLength * 2)));
+    }
+
+    int[] getCode() {
+        return aCode;
+    }
+
+    String[] getLiterals() {
+        return aLiterals;
+    }
+
+    SymbolSetIndexer[] getIndexers() {
+        return aIndexers;
+    }
+
+    NotSymbol[] getNotSymbols() {
+        return aNotSymbols;
+    }
+
+    int getStackSize() {
+        return aStackSize;
+    }
+
+    /**
+     * @return maximal number of characters generated by a single {@link OpCode#REPEAT_SYMBOL_SET} instruction
+     */
+    int getMaxRunLength() {
+        return aMaxRunLength;
+    }
+
+    /**
+     * @return indices of groups captured in each slot
+     */
+    int[] getSlotGroups() {
+        return aSlotGroups;
+    }
+
+    RgxGenProperties getProperties() {
+        return aProperties;
+    }
+
+    FixedLayoutTemplate getTemplate() {
+        return aTemplate;
+    }
+
+    /**
+     * @return minimal length of generated values
+     */
+    public long getMinLength() {
+        return aMinLength;
+    }
+
+    /**
+     * @return maximal length of generated values or {@link LengthAnalysisVisitor#UNBOUNDED} if it is not known
+     */
+    public long getMaxLength() {
+        return aMaxLength;
+    }
+
+    /**
+     * @return expected length of generated values
+     */
+    public double getExpectedLength() {
+        return aExpectedLength;
+    }
+
+    /**
+     * Buffer of this capacity fits any generated value, unless values are very long or their length is not known.
+     *
+     * @return initial capacity for the buffers to generate values into
+     */
+    public int getCapacity() {
+        return aCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "Program{" +
+                "code.length=" + aCode.length +
+                ", literals=" + aLiterals.length +
+                ", indexers=" + aIndexers.length +
+                ", stackSize=" + aStackSize +
+                ", groupSlots=" + aSlotGroups.length +
+                ", length=[" + aMinLength + ", " + aMaxLength + ']' +
+                ", template=" + (aTemplate != null) +
+                '}';
+    }
+}
@@ -0,0 +1,313 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.visitors.LengthAnalysisVisitor;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiles nodes tree into a {@link Program}.
+ * Compiled program consumes random values in exactly the same order as {@link com.github.curiousoddman.rgxgen.visitors.GenerationVisitor},
+ * so that the same seed produces the same values.
+ * <p>
+ * Values of groups are kept in slots of the executor. Only groups that are tracked by the compiler are assigned a slot -
+ * capturing of other groups is compiled away.
+ */
+public class ProgramCompiler implements NodeVisitor {
+    private final List<String>           aLiterals   = new ArrayList<>();
+    private final List<SymbolSetIndexer> aIndexers   = new ArrayList<>();
+    private final List<NotSymbol>        aNotSymbols = new ArrayList<>();
+    private final RgxGenProperties       aProperties;
+    private final boolean                aCaseInsensitive;
+    private final int                    aInfiniteRepetition;
+    private final int                    aFlattenLimit;
+    private final int[]                  aGroupSlots;
+    private final int                    aSlotsCount;
+
+    private int[] aCode = new int[64];
+    private int   aSize;
+    private int   aStackDepth;
+    private int   aMaxStackDepth;
+    private int   aMaxGroupIndex;
+    private int   aMaxRunLength;
+
+    /**
+     * Create compiler that captures values of all groups.
+     *
+     * @param properties properties to use for compilation
+     */
+    public ProgramCompiler(RgxGenProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * Create compiler that captures values only of the tracked groups.
+     *
+     * @param properties    properties to use for compilation
+     * @param trackedGroups indices of groups to capture, or {@code null} to capture all groups
+     */
+    public ProgramCompiler(RgxGenProperties properties, BitSet trackedGroups) {
+        aProperties = properties;
+        aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+        aInfiniteRepetition = RgxGenOption.INFINITE_PATTERN_REPETITION.getFromProperties(properties);
+        aFlattenLimit = RgxGenOption.SYMBOL_SET_FLATTEN_LIMIT.getFromProperties(properties);
+        if (trackedGroups == null) {
+            aGroupSlots = null;
+            aSlotsCount = 0;
+        } else {
+            aGroupSlots = new int[trackedGroups.length()];
+            Arrays.fill(aGroupSlots, -1);
+            int slot = 0;
+            for (int i = trackedGroups.nextSetBit(0); i >= 0; i = trackedGroups.nextSetBit(i + 1)) {
+                aGroupSlots[i] = slot++;
+            }
+            aSlotsCount = slot;
+        }
+    }
+
+    /**
+     * Compile the tree. Only groups that are referenced somewhere in the tree are captured.
+     * Lengths of the values are analyzed to presize buffers, and trees of fixed layout are compiled into templates.
+     *
+     * @param node       root of the tree
+     * @param properties properties to use for compilation
+     * @return compiled program
+     */
+    public static Program compile(Node node, RgxGenProperties properties) {
+        GroupReferencesCollector collector = new GroupReferencesCollector();
+        node.visit(collector);
+        ProgramCompiler compiler = new ProgramCompiler(properties, collector.hasNotSymbols() ? null : collector.getReferencedGroups());
+        node.visit(compiler);
+        LengthAnalysisVisitor lengths = new LengthAnalysisVisitor(properties);
+        node.visit(lengths);
+        FixedLayoutTemplate template = null;
+        if (lengths.isFixedLength()) {
+            FixedLayoutTemplateBuilder templateBuilder = new FixedLayoutTemplateBuilder(properties);
+            node.visit(templateBuilder);
+            template = templateBuilder.getTemplate();
+        }
+        return compiler.getProgram(lengths, template);
+    }
+
+    private int slotOf(int groupIndex) {
+        if (aGroupSlots == null) {
+            aMaxGroupIndex = Math.max(aMaxGroupIndex, groupIndex);
+            return groupIndex;
+        }
+        return groupIndex < aGroupSlots.length ? aGroupSlots[groupIndex] : -1;
+    }
+
+    private int emit(int value) {
+        if (aSize == aCode.length) {
+            aCode = Arrays.copyOf(aCode, aSize * 2);
+        }
+        aCode[aSize] = value;
+        return aSize++;
+    }
+
+    private void push() {
+        ++aStackDepth;
+        aMaxStackDepth = Math.max(aMaxStackDepth, aStackDepth);
+    }
+
+    private void pop() {
+        --aStackDepth;
+    }
+
+    /**
+     * Get indexer of the symbol set. Indexers with default flatten limit are cached in the node.
+     *
+     * @param node            symbol set
+     * @param caseInsensitive whether to get case-insensitive indexer
+     * @param flattenLimit    sets up to this size are flattened into an array
+     * @return indexer of the symbol set
+     */
+    static SymbolSetIndexer getIndexer(SymbolSet node, boolean caseInsensitive, int flattenLimit) {
+        SymbolSetIndexer indexer = caseInsensitive ? node.getCaseInsensitiveSymbolSetIndexer() : node.getSymbolSetIndexer();
+        return flattenLimit == SymbolSetIndexer.DEFAULT_FLATTEN_LIMIT ? indexer : indexer.withFlattenLimit(flattenLimit);
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        emit(OpCode.SYMBOL_SET);
+        emit(aIndexers.size());
+        aIndexers.add(getIndexer(node, aCaseInsensitive, aFlattenLimit));
+    }
+
+    @Override
+    public void visit(Choice node) {
+        Node[] nodes = node.getNodes();
+        if (!aCaseInsensitive && isLiteralChoice(nodes)) {
+            // Single instruction picks the literal - no jumps into and out of alternatives
+            emit(OpCode.LITERAL_CHOICE);
+            emit(nodes.length);
+            for (Node n : nodes) {
+                emit(aLiterals.size());
+                aLiterals.add(((FinalSymbol) n).getValue());
+            }
+            return;
+        }
+        emit(OpCode.CHOICE);
+        emit(nodes.length);
+        int table = aSize;
+        for (Node ignored : nodes) {
+            emit(0);
+        }
+
+        int[] jumpsToEnd = new int[Math.max(0, nodes.length - 1)];
+        for (int i = 0; i < nodes.length; i++) {
+            aCode[table + i] = aSize;
+            nodes[i].visit(this);
+            if (i < jumpsToEnd.length) {
+                emit(OpCode.JUMP);
+                jumpsToEnd[i] = emit(0);
+            }
+        }
+
+        for (int jump : jumpsToEnd) {
+            aCode[jump] = aSize;
+        }
+    }
+
+    private static boolean isLiteralChoice(Node[] nodes) {
+        for (Node n : nodes) {
+            if (!(n instanceof FinalSymbol)) {
+                return false;
+            }
+        }
+        return nodes.length > 0;
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        emit(aCaseInsensitive ? OpCode.LITERAL_CASE_INSENSITIVE : OpCode.LITERAL);
+        emit(aLiterals.size());
+        aLiterals.add(node.getValue());
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        int max = node.getMax() == -1 ? aInfiniteRepetition : node.getMax();
+        int min = node.getMin();
+        if (node.getNode() instanceof SymbolSet) {
+            // Fused loop generates all characters at once
+            emit(OpCode.REPEAT_SYMBOL_SET);
+            emit(min);
+            emit(min >= max ? 0 : max + 1 - min);
+            emit(aIndexers.size());
+            aIndexers.add(getIndexer((SymbolSet) node.getNode(), aCaseInsensitive, aFlattenLimit));
+            aMaxRunLength = Math.max(aMaxRunLength, Math.max(min, max));
+            return;
+        }
+        emit(OpCode.REPEAT);
+        emit(min);
+        emit(min >= max ? 0 : max + 1 - min);
+        int endAddress = emit(0);
+        int loopStart = aSize;
+        push();
+        node.getNode().visit(this);
+        pop();
+        emit(OpCode.REPEAT_LOOP);
+        emit(loopStart);
+        aCode[endAddress] = aSize;
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        for (Node n : node.getNodes()) {
+            n.visit(this);
+        }
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        emit(OpCode.NOT_SYMBOL);
+        emit(aNotSymbols.size());
+        aNotSymbols.add(node);
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        int slot = slotOf(node.getIndex());
+        if (slot == -1) {
+            throw new IllegalStateException("Reference to not tracked group " + node.getIndex() + ". Please inform developers.");
+        }
+        emit(OpCode.GROUP_REF);
+        emit(slot);
+    }
+
+    @Override
+    public void visit(Group node) {
+        int slot = slotOf(node.getIndex());
+        if (slot == -1) {
+            node.getNode().visit(this);
+            return;
+        }
+        emit(OpCode.GROUP_START);
+        push();
+        node.getNode().visit(this);
+        pop();
+        emit(OpCode.GROUP_END);
+        emit(slot);
+    }
+
+    /**
+     * Finish compilation and create the program.
+     *
+     * @return compiled program
+     */
+    public Program getProgram() {
+        return getProgram(null, null);
+    }
+
+    private Program getProgram(LengthAnalysisVisitor lengths, FixedLayoutTemplate template) {
+        emit(OpCode.HALT);
+        int[] slotGroups;
+        if (aGroupSlots == null) {
+            slotGroups = new int[aMaxGroupIndex + 1];
+            for (int i = 0; i < slotGroups.length; i++) {
+                slotGroups[i] = i;
+            }
+        } else {
+            slotGroups = new int[aSlotsCount];
+            for (int i = 0; i < aGroupSlots.length; i++) {
+                if (aGroupSlots[i] != -1) {
+                    slotGroups[aGroupSlots[i]] = i;
+                }
+            }
+        }
+        return new Program(Arrays.copyOf(aCode, aSize),
+                           aLiterals.toArray(new String[0]),
+                           aIndexers.toArray(new SymbolSetIndexer[0]),
+                           aNotSymbols.toArray(new NotSymbol[0]),
+                           aMaxStackDepth,
+                           aMaxRunLength,
+                           slotGroups,
+                           aProperties,
+                           lengths,
+                           template);
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.util.Util;
+import com.github.curiousoddman.rgxgen.visitors.GenerationVisitor;
+import com.github.curiousoddman.rgxgen.visitors.NotMatchingGenerationVisitor;
+import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interpreter of the {@link Program}.
+ * Executor keeps the state of a single generation, so it must not be shared between threads.
+ * <p>
+ * Captured groups are kept as start and end offsets of the value in the output buffer.
+ * Only values captured by not matching generation are kept as strings.
+ */
+public class ProgramExecutor {
+    private static final int NOT_CAPTURED        = -1;
+    private static final int STRING_VALUE        = -2;
+    private static final int MAX_RUN_BUFFER_SIZE = 256;
+
+    private final Program  aProgram;
+    private final int[]    aStack;
+    private final int[]    aGroupBounds;
+    private final String[] aGroupStrings;
+    private final char[]   aTemplateBuffer;
+    private final char[]   aRunBuffer;
+
+    public ProgramExecutor(Program program) {
+        aProgram = program;
+        aStack = new int[program.getStackSize()];
+        aGroupBounds = new int[program.getSlotGroups().length * 2];
+        aGroupStrings = program.getNotSymbols().length == 0 ? null : new String[program.getSlotGroups().length];
+        aTemplateBuffer = program.getTemplate() == null ? null : program.getTemplate().newBuffer();
+        aRunBuffer = new char[Math.min(program.getMaxRunLength(), MAX_RUN_BUFFER_SIZE)];
+        reset();
+    }
+
+    /**
+     * Execute the program and append generated value to the builder.
+     *
+     * @param random random to use for the generation
+     * @param sb     builder to append generated value to
+     */
+    public void execute(RandomSource random, StringBuilder sb) {
+        FixedLayoutTemplate template = aProgram.getTemplate();
+        if (template != null) {
+            template.fill(random, aTemplateBuffer);
+            sb.append(aTemplateBuffer);
+            return;
+        }
+        sb.ensureCapacity(sb.length() + aProgram.getCapacity());
+
+        int[] code = aProgram.getCode();
+        String[] literals = aProgram.getLiterals();
+        SymbolSetIndexer[] indexers = aProgram.getIndexers();
+        int[] stack = aStack;
+        int[] groupBounds = aGroupBounds;
+        int sp = 0;
+        int pc = 0;
+
+        while (true) {
+            switch (code[pc]) {
+                case OpCode.HALT:
+                    return;
+
+                case OpCode.LITERAL:
+                    sb.append(literals[code[pc + 1]]);
+                    pc += 2;
+                    break;
+
+                case OpCode.LITERAL_CASE_INSENSITIVE:
+                    sb.append(Util.randomlyChangeCase(random, literals[code[pc + 1]]));
+                    pc += 2;
+                    break;
+
+                case OpCode.SYMBOL_SET: {
+                    SymbolSetIndexer indexer = indexers[code[pc + 1]];
+                    sb.append(indexer.get(random.nextInt(indexer.size())));
+                    pc += 2;
+                    break;
+                }
+
+                case OpCode.CHOICE:
+                    pc = code[pc + 2 + random.nextInt(code[pc + 1])];
+                    break;
+
+                case OpCode.LITERAL_CHOICE: {
+                    int count = code[pc + 1];
+                    sb.append(literals[code[pc + 2 + random.nextInt(count)]]);
+                    pc += 2 + count;
+                    break;
+                }
+
+                case OpCode.JUMP:
+                    pc = code[pc + 1];
+                    break;
+
+                case OpCode.REPEAT: {
+                    int range = code[pc + 2];
+                    int repeat = range == 0 ? code[pc + 1] : code[pc + 1] + random.nextInt(range);
+                    if (repeat > 0) {
+                        stack[sp++] = repeat;
+                        pc += 4;
+                    } else {
+                        pc = code[pc + 3];
+                    }
+                    break;
+                }
+
+                case OpCode.REPEAT_LOOP:
+                    if (--stack[sp - 1] > 0) {
+                        pc = code[pc + 1];
+                    } else {
+                        --sp;
+                        pc += 2;
+                    }
+                    break;
+
+                case OpCode.GROUP_START:
+                    stack[sp++] = sb.length();
+                    ++pc;
+                    break;
+
+                case OpCode.GROUP_END: {
+                    int slot = code[pc + 1] << 1;
+                    groupBounds[slot] = stack[--sp];
+                    groupBounds[slot + 1] = sb.length();
+                    pc += 2;
+                    break;
+                }
+
+                case OpCode.GROUP_REF: {
+                    int slot = code[pc + 1] << 1;
+                    int start = groupBounds[slot];
+                    if (start >= 0) {
+                        sb.append(sb, start, groupBounds[slot + 1]);
+                    } else if (start == STRING_VALUE) {
+                        sb.append(aGroupStrings[code[pc + 1]]);
+                    }
+                    pc += 2;
+                    break;
+                }
+
+                case OpCode.REPEAT_SYMBOL_SET: {
+                    int range = code[pc + 2];
+                    int repeat = range == 0 ? code[pc + 1] : code[pc + 1] + random.nextInt(range);
+                    appendRun(indexers[code[pc + 3]], repeat, random, sb);
+                    pc += 4;
+                    break;
+                }
+
+                case OpCode.NOT_SYMBOL:
+                    generateNotMatching(code[pc + 1], random, sb);
+                    pc += 2;
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unknown instruction " + code[pc] + " at " + pc + ". Please inform developers.");
+            }
+        }
+    }
+
+    private void appendRun(SymbolSetIndexer indexer, int repeat, RandomSource random, StringBuilder sb) {
+        char[] buffer = aRunBuffer;
+        int size = indexer.size();
+        while (repeat > 0) {
+            int length = Math.min(repeat, buffer.length);
+            for (int i = 0; i < length; i++) {
+                buffer[i] = indexer.get(random.nextInt(size));
+            }
+            sb.append(buffer, 0, length);
+            repeat -= length;
+        }
+    }
+
+    /**
+     * Clear the values of groups captured during previous execution.
+     */
+    public void reset() {
+        for (int i = 0; i < aGroupBounds.length; i += 2) {
+            aGroupBounds[i] = NOT_CAPTURED;
+        }
+    }
+
+    private String getGroupValue(int slot, StringBuilder sb) {
+        int start = aGroupBounds[slot << 1];
+        if (start >= 0) {
+            return sb.substring(start, aGroupBounds[(slot << 1) + 1]);
+        }
+        return start == STRING_VALUE ? aGroupStrings[slot] : null;
+    }
+
+    private void generateNotMatching(int index, RandomSource random, StringBuilder sb) {
+        int[] slotGroups = aProgram.getSlotGroups();
+        String[] values = new String[slotGroups.length];
+        Map<Integer, String> groupValues = new HashMap<>();
+        for (int i = 0; i < slotGroups.length; i++) {
+            values[i] = getGroupValue(i, sb);
+            if (values[i] != null) {
+                groupValues.put(slotGroups[i], values[i]);
+            }
+        }
+
+        GenerationVisitor nmgv = new NotMatchingGenerationVisitor(random, groupValues, aProgram.getProperties());
+        aProgram.getNotSymbols()[index].getNode().visit(nmgv);
+        sb.append(nmgv.getStringBuilder());
+
+        // Not matching generation could capture groups as well
+        for (int i = 0; i < slotGroups.length; i++) {
+            String value = groupValues.get(slotGroups[i]);
+            if (value != values[i]) {
+                aGroupBounds[i << 1] = STRING_VALUE;
+                aGroupStrings[i] = value;
+            }
+        }
+    }
+}
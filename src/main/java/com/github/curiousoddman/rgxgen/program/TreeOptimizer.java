@@ -0,0 +1,371 @@
+package com.github.curiousoddman.rgxgen.program;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.model.MatchType;
+import com.github.curiousoddman.rgxgen.model.OptimizationLevel;
+import com.github.curiousoddman.rgxgen.model.SymbolRange;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.iterators.StringIterator;
+import com.github.curiousoddman.rgxgen.util.chars.CharList;
+import com.github.curiousoddman.rgxgen.visitors.NodeVisitor;
+import com.github.curiousoddman.rgxgen.visitors.UniqueGenerationVisitor;
+import com.github.curiousoddman.rgxgen.visitors.UniqueValuesCountingVisitor;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Rewrites nodes tree into equivalent tree that is cheaper to generate from.
+ * Optimizations that are applied depend on {@link RgxGenOption#OPTIMIZATION_LEVEL}:
+ * <ul>
+ *     <li>{@link OptimizationLevel#PRESERVE_VALUES} - nested sequences are flattened, adjacent literals are merged,
+ *     fixed repetitions of literals are expanded, {@code {1}} repetitions and groups that are never referenced are unwrapped,
+ *     choices of single characters become symbol sets when the order of characters is not changed.</li>
+ *     <li>{@link OptimizationLevel#PRESERVE_DISTRIBUTION} - choices with single alternative are unwrapped,
+ *     choices of distinct single characters always become symbol sets.</li>
+ *     <li>{@link OptimizationLevel#CHANGE_DISTRIBUTION} - nested choices are flattened, duplicate literal alternatives are removed,
+ *     choices of characters and symbol sets are merged into a single symbol set,
+ *     subtrees with few values are replaced with a choice of their distinct values, so each value takes a single random draw.
+ *     Subtrees with the same values share the same choice.</li>
+ * </ul>
+ * The tree is used only for matching values generation - other visitors rely on the structure of the original tree.
+ */
+public class TreeOptimizer implements NodeVisitor {
+    /**
+     * Fixed repetitions of literals are expanded only up to this length.
+     */
+    static final int MAX_EXPANDED_LITERAL_LENGTH = 256;
+
+    /**
+     * Subtrees are replaced with a choice of their values only up to this number of values.
+     */
+    static final int MAX_VALUE_TABLE_SIZE = 1024;
+
+    private final OptimizationLevel       aLevel;
+    private final RgxGenProperties        aProperties;
+    private final boolean                 aCaseInsensitive;
+    private final BitSet                  aReferencedGroups;
+    private final Map<List<String>, Node> aValueTables = new HashMap<>();
+
+    private Node aResult;
+
+    /**
+     * Optimize the tree according to the properties.
+     *
+     * @param node       root of the tree
+     * @param properties properties with optimization level
+     * @return root of the optimized tree. Original tree is not modified.
+     */
+    public static Node optimize(Node node, RgxGenProperties properties) {
+        OptimizationLevel level = RgxGenOption.OPTIMIZATION_LEVEL.getFromProperties(properties);
+        if (level == OptimizationLevel.NONE) {
+            return node;
+        }
+        GroupReferencesCollector collector = new GroupReferencesCollector();
+        node.visit(collector);
+        // Not matching generation uses values of all groups, so groups are kept as is
+        BitSet referencedGroups = collector.hasNotSymbols() ? null : collector.getReferencedGroups();
+        TreeOptimizer optimizer = new TreeOptimizer(level, properties, referencedGroups);
+        return optimizer.optimize(node);
+    }
+
+    private TreeOptimizer(OptimizationLevel level, RgxGenProperties properties, BitSet referencedGroups) {
+        aLevel = level;
+        aProperties = properties;
+        aCaseInsensitive = RgxGenOption.CASE_INSENSITIVE.getFromProperties(properties);
+        aReferencedGroups = referencedGroups;
+    }
+
+    private Node optimize(Node node) {
+        node.visit(this);
+        return aResult;
+    }
+
+    private boolean isEnabled(OptimizationLevel level) {
+        return aLevel.compareTo(level) >= 0;
+    }
+
+    private static boolean isEmpty(Node node) {
+        return node instanceof FinalSymbol && ((FinalSymbol) node).getValue().isEmpty();
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        aResult = node;
+    }
+
+    @Override
+    public void visit(Choice node) {
+        List<Node> alternatives = new ArrayList<>(node.getNodes().length);
+        for (Node alternative : node.getNodes()) {
+            Node optimized = optimize(alternative);
+            if (isEnabled(OptimizationLevel.CHANGE_DISTRIBUTION) && optimized instanceof Choice) {
+                alternatives.addAll(Arrays.asList(((Choice) optimized).getNodes()));
+            } else {
+                alternatives.add(optimized);
+            }
+        }
+
+        if (isEnabled(OptimizationLevel.CHANGE_DISTRIBUTION)) {
+            removeDuplicateLiterals(alternatives);
+        }
+
+        Node symbolSet = aCaseInsensitive ? null : toSymbolSet(node.getPattern(), alternatives);
+        if (symbolSet != null) {
+            aResult = symbolSet;
+        } else if (alternatives.size() == 1 && isEnabled(OptimizationLevel.PRESERVE_DISTRIBUTION)) {
+            aResult = alternatives.get(0);
+        } else {
+            aResult = toValueTable(new Choice(node.getPattern(), alternatives.toArray(new Node[0])));
+        }
+    }
+
+    /**
+     * Replace subtree that has few values with a choice of its distinct values.
+     * Each value becomes equally probable, so this is done only when distribution change is allowed.
+     * Case-insensitive literals change case randomly anyway, so the subtrees are kept as is in case-insensitive mode.
+     *
+     * @param node optimized subtree
+     * @return choice of values or the same subtree
+     */
+    private Node toValueTable(Node node) {
+        if (!isEnabled(OptimizationLevel.CHANGE_DISTRIBUTION) || aCaseInsensitive) {
+            return node;
+        }
+        List<String> literals = getLiterals(node);
+        if (literals != null) {
+            // Already a choice of values - only share it
+            return aValueTables.computeIfAbsent(literals, k -> node);
+        }
+        if (node instanceof FinalSymbol || node instanceof SymbolSet || !hasOnlyValues(node)) {
+            return node;
+        }
+        UniqueValuesCountingVisitor counter = new UniqueValuesCountingVisitor(aProperties);
+        node.visit(counter);
+        Optional<BigInteger> estimation = counter.getEstimation();
+        // Estimation might be greater than the actual number of values, but never less
+        if (!estimation.isPresent() || estimation.get()
+                                                 .compareTo(BigInteger.valueOf(MAX_VALUE_TABLE_SIZE)) > 0) {
+            return node;
+        }
+
+        UniqueGenerationVisitor generator = new UniqueGenerationVisitor(aProperties);
+        node.visit(generator);
+        StringIterator iterator = generator.getUniqueStrings();
+        Set<String> values = new LinkedHashSet<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next());
+        }
+        return aValueTables.computeIfAbsent(new ArrayList<>(values), k -> k.size() == 1
+                                                                          ? new FinalSymbol(k.get(0))
+                                                                          : new Choice(node.getPattern(), k.stream()
+                                                                                                            .map(FinalSymbol::new)
+                                                                                                            .toArray(Node[]::new)));
+    }
+
+    private static List<String> getLiterals(Node node) {
+        if (!(node instanceof Choice)) {
+            return null;
+        }
+        Node[] alternatives = ((Choice) node).getNodes();
+        List<String> literals = new ArrayList<>(alternatives.length);
+        for (Node alternative : alternatives) {
+            if (!(alternative instanceof FinalSymbol)) {
+                return null;
+            }
+            literals.add(((FinalSymbol) alternative).getValue());
+        }
+        return literals;
+    }
+
+    /**
+     * Check that the subtree can be replaced by its values - it does not have groups, references or negative lookarounds.
+     */
+    private static boolean hasOnlyValues(Node node) {
+        if (node instanceof FinalSymbol || node instanceof SymbolSet) {
+            return true;
+        }
+        if (node instanceof Repeat) {
+            return hasOnlyValues(((Repeat) node).getNode());
+        }
+        Node[] nodes;
+        if (node instanceof Choice) {
+            nodes = ((Choice) node).getNodes();
+        } else if (node instanceof Sequence) {
+            nodes = ((Sequence) node).getNodes();
+        } else {
+            return false;
+        }
+        for (Node n : nodes) {
+            if (!hasOnlyValues(n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void removeDuplicateLiterals(List<Node> alternatives) {
+        Set<String> literals = new HashSet<>();
+        alternatives.removeIf(n -> n instanceof FinalSymbol && !literals.add(((FinalSymbol) n).getValue()));
+    }
+
+    /**
+     * Choice of single characters picks each character with the same probability - same as symbol set.
+     * Choice of symbol sets is merged only when distribution change is allowed.
+     *
+     * @param pattern      pattern of the choice
+     * @param alternatives alternatives of the choice
+     * @return symbol set or null, if choice cannot be replaced with a symbol set
+     */
+    private Node toSymbolSet(String pattern, List<Node> alternatives) {
+        CharList characters = CharList.ofCapacity(alternatives.size());
+        List<SymbolRange> ranges = new ArrayList<>();
+        boolean onlyCharacters = true;
+        for (Node alternative : alternatives) {
+            if (alternative instanceof FinalSymbol && ((FinalSymbol) alternative).getValue().length() == 1) {
+                characters.add(((FinalSymbol) alternative).getValue().charAt(0));
+            } else if (alternative instanceof SymbolSet && isEnabled(OptimizationLevel.CHANGE_DISTRIBUTION)) {
+                SymbolSet symbolSet = (SymbolSet) alternative;
+                ranges.addAll(symbolSet.getSymbolRanges());
+                CharList symbols = symbolSet.getSymbols();
+                for (int i = 0; i < symbols.size(); i++) {
+                    characters.add(symbols.get(i));
+                }
+                onlyCharacters = false;
+            } else {
+                return null;
+            }
+        }
+        if (alternatives.size() < 2) {
+            return null;
+        }
+
+        SymbolSet symbolSet = SymbolSet.ofUnicode(pattern, ranges, characters, MatchType.POSITIVE);
+        if (isEnabled(OptimizationLevel.CHANGE_DISTRIBUTION)) {
+            return symbolSet;
+        }
+        if (!onlyCharacters) {
+            return null;
+        }
+        char[] generated = symbolSet.getSymbolSetIndexer().getAll();
+        if (generated.length != characters.size()) {
+            // Some characters repeat, so they are picked more often
+            return null;
+        }
+        if (isEnabled(OptimizationLevel.PRESERVE_DISTRIBUTION)) {
+            return symbolSet;
+        }
+        for (int i = 0; i < generated.length; i++) {
+            if (generated[i] != characters.get(i)) {
+                return null;
+            }
+        }
+        return symbolSet;
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        aResult = node;
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        Node child = optimize(node.getNode());
+        int min = node.getMin();
+        int max = node.getMax();
+        if (min == max) {
+            if (min == 0) {
+                aResult = new FinalSymbol("");
+                return;
+            }
+            if (min == 1) {
+                aResult = child;
+                return;
+            }
+            if (child instanceof FinalSymbol) {
+                String value = ((FinalSymbol) child).getValue();
+                if ((long) value.length() * min <= MAX_EXPANDED_LITERAL_LENGTH) {
+                    StringBuilder sb = new StringBuilder(value.length() * min);
+                    for (int i = 0; i < min; i++) {
+                        sb.append(value);
+                    }
+                    aResult = new FinalSymbol(sb.toString());
+                    return;
+                }
+            }
+        }
+        aResult = toValueTable(child == node.getNode() ? node : new Repeat(node.getPattern(), child, min, max));
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        List<Node> nodes = new ArrayList<>(node.getNodes().length);
+        for (Node n : node.getNodes()) {
+            Node optimized = optimize(n);
+            if (optimized instanceof Sequence) {
+                for (Node nested : ((Sequence) optimized).getNodes()) {
+                    addMergingLiterals(nodes, nested);
+                }
+            } else {
+                addMergingLiterals(nodes, optimized);
+            }
+        }
+
+        if (nodes.isEmpty()) {
+            aResult = new FinalSymbol("");
+        } else if (nodes.size() == 1) {
+            aResult = nodes.get(0);
+        } else {
+            aResult = toValueTable(new Sequence(node.getPattern(), nodes.toArray(new Node[0])));
+        }
+    }
+
+    private static void addMergingLiterals(List<Node> nodes, Node node) {
+        if (isEmpty(node)) {
+            return;
+        }
+        int last = nodes.size() - 1;
+        if (node instanceof FinalSymbol && last >= 0 && nodes.get(last) instanceof FinalSymbol) {
+            nodes.set(last, new FinalSymbol(((FinalSymbol) nodes.get(last)).getValue() + ((FinalSymbol) node).getValue()));
+        } else {
+            nodes.add(node);
+        }
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        aResult = node;
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        aResult = node;
+    }
+
+    @Override
+    public void visit(Group node) {
+        Node child = optimize(node.getNode());
+        if (aReferencedGroups != null && !aReferencedGroups.get(node.getIndex())) {
+            aResult = child;
+        } else {
+            aResult = child == node.getNode() ? node : new Group(node.getPattern(), node.getIndex(), child);
+        }
+    }
+}
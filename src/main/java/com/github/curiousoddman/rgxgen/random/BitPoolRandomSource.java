@@ -0,0 +1,85 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+/**
+ * Source that spends only as many random bits as each draw needs.
+ * <p>
+ * Bits are taken from 64-bit words of the underlying source. Bounded values use {@code ceil(log2(bound))} bits
+ * with rejection of the values outside of the bound, so they stay unbiased. For example, a digit takes 4 bits
+ * (6.4 bits on average with rejections) instead of 32 bits, and a boolean takes a single bit.
+ * <p>
+ * Values differ from the values of the underlying source, so the same seed produces different values with and without the pool.
+ */
+public class BitPoolRandomSource implements RandomSource {
+    private final RandomSource aSource;
+
+    private long aPool;
+    private int  aAvailable;
+
+    public BitPoolRandomSource(RandomSource source) {
+        aSource = source;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        if (bound == 1) {
+            return 0;
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(bound - 1);
+        if ((bound & (bound - 1)) == 0) {
+            return nextBits(bits);
+        }
+        int value;
+        do {
+            value = nextBits(bits);
+        } while (value >= bound);
+        return value;
+    }
+
+    @Override
+    public int nextBits(int bits) {
+        if (bits <= aAvailable) {
+            int value = (int) (aPool & ((1L << bits) - 1));
+            aPool >>>= bits;
+            aAvailable -= bits;
+            return value;
+        }
+        // Remaining bits of the pool are used as the lowest bits of the value
+        int low = (int) aPool;
+        int lowBits = aAvailable;
+        int highBits = bits - lowBits;
+        aPool = aSource.nextLong();
+        int high = (int) (aPool & ((1L << highBits) - 1));
+        aPool >>>= highBits;
+        aAvailable = 64 - highBits;
+        return low | (high << lowBits);
+    }
+
+    @Override
+    public long nextLong() {
+        return aSource.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextBits(1) != 0;
+    }
+}
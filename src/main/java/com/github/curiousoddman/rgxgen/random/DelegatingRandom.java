@@ -0,0 +1,81 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.util.Random;
+
+/**
+ * {@code java.util.Random} that takes all values from the {@link RandomSource}.
+ * It is used where the API exposes {@code java.util.Random}, but the generation uses a random source.
+ * Seed cannot be changed - values depend only on the source.
+ */
+public class DelegatingRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private final transient RandomSource aSource;
+
+    public DelegatingRandom(RandomSource source) {
+        // Fixed seed avoids the cost of the unique seed - it is not used anyway
+        super(0L);
+        aSource = source;
+    }
+
+    /**
+     * Create {@code java.util.Random} view of the source.
+     *
+     * @param source random source
+     * @return underlying random of the adapter or random that delegates to the source
+     */
+    public static Random of(RandomSource source) {
+        return source instanceof JavaUtilRandomSource ? ((JavaUtilRandomSource) source).getRandom() : new DelegatingRandom(source);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Called by the constructor of Random. Values depend only on the source.
+    }
+
+    @Override
+    protected int next(int bits) {
+        return aSource.nextBits(bits);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        return aSource.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return aSource.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return aSource.nextBoolean();
+    }
+
+    /**
+     * @return source of the values
+     */
+    public RandomSource getSource() {
+        return aSource;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.util.Random;
+
+/**
+ * Adapter for {@code java.util.Random}.
+ */
+public class JavaUtilRandomSource implements RandomSource {
+    private final Random aRandom;
+
+    public JavaUtilRandomSource(Random random) {
+        aRandom = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return aRandom.nextInt(bound);
+    }
+
+    @Override
+    public int nextBits(int bits) {
+        return aRandom.nextInt() >>> (32 - bits);
+    }
+
+    @Override
+    public long nextLong() {
+        return aRandom.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return aRandom.nextBoolean();
+    }
+
+    /**
+     * @return underlying random
+     */
+    public Random getRandom() {
+        return aRandom;
+    }
+}
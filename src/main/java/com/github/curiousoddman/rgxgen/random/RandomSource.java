@@ -0,0 +1,128 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Source of random values used for the generation.
+ * <p>
+ * Implementations are not required to be thread safe, unless stated otherwise.
+ */
+public interface RandomSource {
+    /**
+     * Returns uniformly distributed value between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound upper bound (exclusive). Must be positive.
+     * @return random value
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns random value with lowest {@code bits} bits random and all other bits set to zero.
+     *
+     * @param bits number of random bits. Must be between 1 and 32.
+     * @return random value
+     */
+    int nextBits(int bits);
+
+    /**
+     * Returns random value with all 64 bits random.
+     *
+     * @return random value
+     */
+    long nextLong();
+
+    /**
+     * Returns random boolean value.
+     *
+     * @return random value
+     */
+    default boolean nextBoolean() {
+        return nextBits(1) != 0;
+    }
+
+    /**
+     * Create a source that uses {@code java.util.Random}.
+     * Values generated with this source are the same as values generated with the {@code random} itself.
+     *
+     * @param random random to use
+     * @return random source
+     */
+    static RandomSource of(Random random) {
+        return new JavaUtilRandomSource(random);
+    }
+
+    /**
+     * Create a source that uses {@code java.util.SplittableRandom}.
+     *
+     * @param random random to use
+     * @return random source
+     */
+    static RandomSource of(SplittableRandom random) {
+        return new SplittableRandomSource(random);
+    }
+
+    /**
+     * Get a source that uses {@code java.util.concurrent.ThreadLocalRandom} of the calling thread.
+     * This source is thread safe, but the values cannot be reproduced.
+     *
+     * @return random source
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * Create a fast built-in xoroshiro128++ source.
+     *
+     * @param seed initial seed
+     * @return random source
+     */
+    static RandomSource xoroshiro(long seed) {
+        return new XoroshiroRandomSource(seed);
+    }
+
+    /**
+     * Create a source for value {@code index} of counter-based stream.
+     * The source depends only on the seed and the index, so the value can be reproduced independently of other values,
+     * e.g. in another thread or on another machine.
+     *
+     * @param seed  seed of the stream
+     * @param index index of the value
+     * @return random source
+     */
+    static RandomSource forIndex(long seed, long index) {
+        return new XoroshiroRandomSource(seed, index);
+    }
+
+    /**
+     * Create a source that takes only as many bits from the {@code source} as each draw needs.
+     * This reduces number of calls to the {@code source} several times for small bounds, such as digits or letters.
+     * Pool pays off for sources with expensive calls, such as {@code java.util.Random} or {@code java.security.SecureRandom}.
+     * Fast sources, such as {@link #xoroshiro(long)}, are faster without the pool.
+     *
+     * @param source source of random bits
+     * @return random source
+     * @see BitPoolRandomSource
+     */
+    static RandomSource bitPool(RandomSource source) {
+        return new BitPoolRandomSource(source);
+    }
+}
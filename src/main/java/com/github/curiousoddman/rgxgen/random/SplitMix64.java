@@ -0,0 +1,44 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+/**
+ * SplitMix64 mixing function.
+ *
+ * @see <a href="https://prng.di.unimi.it/splitmix64.c">splitmix64.c</a>
+ */
+public final class SplitMix64 {
+    /**
+     * Increment of the SplitMix64 generator.
+     */
+    public static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private SplitMix64() {
+    }
+
+    /**
+     * Scramble the bits of the value. Different inputs give different outputs.
+     *
+     * @param z value to mix
+     * @return mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.curiousoddman.rgxgen.random;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+/**
+ * Built-in xoroshiro128++ generator. State is initialized from the seed with SplitMix64.
+ * <p>
+ * Generator can also be positioned on a value of counter-based stream with {@link #setSeed(long, long)}:
+ * the state for each index is derived only from the seed and the index, so it does not depend on the values generated before.
+ *
+ * @see <a href="https://prng.di.unimi.it/xoroshiro128plusplus.c">xoroshiro128plusplus.c</a>
+ */
+public class XoroshiroRandomSource implements RandomSource {
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+    private long aState0;
+    private long aState1;
+
+    public XoroshiroRandomSource(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Create generator positioned on value {@code index} of counter-based stream.
+     *
+     * @param seed  seed of the stream
+     * @param index index of the value in the stream
+     * @see #setSeed(long, long)
+     */
+    public XoroshiroRandomSource(long seed, long index) {
+        setSeed(seed, index);
+    }
+
+    /**
+     * Reinitialize the state of the generator.
+     *
+     * @param seed new seed
+     */
+    public final void setSeed(long seed) {
+        // Two different inputs for the mixer guarantee that state is never all zeroes
+        aState0 = SplitMix64.mix(seed + SplitMix64.GOLDEN_GAMMA);
+        aState1 = SplitMix64.mix(seed + 2 * SplitMix64.GOLDEN_GAMMA);
+    }
+
+    /**
+     * Reinitialize the state of the generator for value {@code index} of counter-based stream.
+     * For a fixed seed different indices always give different states.
+     *
+     * @param seed  seed of the stream
+     * @param index index of the value in the stream
+     */
+    public final void setSeed(long seed, long index) {
+        setSeed(SplitMix64.mix(SplitMix64.mix(seed) + index * SplitMix64.GOLDEN_GAMMA));
+    }
+
+    @Override
+    public long nextLong() {
+        long s0 = aState0;
+        long s1 = aState1;
+        long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        s1 ^= s0;
+        aState0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+        aState1 = Long.rotateLeft(s1, 28);
+        return result;
+    }
+
+    @Override
+    public int nextBits(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Lemire's nearly divisionless method: unbiased and mostly without division.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & UNSIGNED_INT_MASK;
+        if (low < bound) {
+            long threshold = (UNSIGNED_INT_MASK + 1 - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & UNSIGNED_INT_MASK;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+}
@@ -18,9 +18,13 @@ package com.github.curiousoddman.rgxgen.util;
 
 import com.github.curiousoddman.rgxgen.model.SymbolRange;
 import com.github.curiousoddman.rgxgen.parsing.dflt.ConstantsProvider;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 import com.github.curiousoddman.rgxgen.util.chars.CharList;
 
 import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,6 +57,17 @@ public final class Util {
      * @return string with random characters changed case.
      */
     public static String randomlyChangeCase(Random rnd, String input) {
+        return randomlyChangeCase(RandomSource.of(rnd), input);
+    }
+
+    /**
+     * Randomly change case for the letters in a string
+     *
+     * @param rnd   random to be used
+     * @param input input string to randomize
+     * @return string with random characters changed case.
+     */
+    public static String randomlyChangeCase(RandomSource rnd, String input) {
         StringBuilder sb = new StringBuilder(input);
         for (int i = 0; i < sb.length(); i++) {
             char currentChar = sb.charAt(i);
@@ -66,6 +81,141 @@ public final class Util {
         return sb.toString();
     }
 
+    /**
+     * Copy the contents of the builder into the array
+     *
+     * @param source builder to copy characters from
+     * @param buffer destination array
+     * @param offset index in destination array to copy first character to
+     * @return number of copied characters
+     * @throws IndexOutOfBoundsException when the contents of the builder does not fit into the array
+     */
+    public static int copyChars(StringBuilder source, char[] buffer, int offset) {
+        int length = source.length();
+        if (offset < 0 || offset > buffer.length - length) {
+            throw new IndexOutOfBoundsException("Value of length " + length + " does not fit into buffer of length " + buffer.length + " at offset " + offset);
+        }
+        source.getChars(0, length, buffer, offset);
+        return length;
+    }
+
+    /**
+     * Count number of bytes in UTF-8 encoding of the characters.
+     * Unpaired surrogates are encoded as {@code '?'}, same as {@link String#getBytes(java.nio.charset.Charset)} does.
+     *
+     * @param source characters to encode
+     * @return number of bytes
+     */
+    public static int utf8Length(CharSequence source) {
+        int length = source.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(source.charAt(i + 1))) {
+                // 4 bytes for 2 chars
+                bytes += 2;
+                ++i;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode the characters in UTF-8 into the array.
+     * Array must have at least {@link #utf8Length(CharSequence)} bytes after the offset.
+     *
+     * @param source characters to encode
+     * @param buffer destination array
+     * @param offset index in destination array to write first byte to
+     * @return index after the last written byte
+     */
+    public static int encodeUtf8(CharSequence source, byte[] buffer, int offset) {
+        int length = source.length();
+        int pos = offset;
+        int i = 0;
+        // Most of the values are ASCII - copy them without any checks
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            buffer[pos++] = (byte) c;
+            ++i;
+        }
+        for (; i < length; i++) {
+            char c = source.charAt(i);
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | c >> 6);
+                buffer[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(source.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, source.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[pos++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | c >> 12);
+                buffer[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Encode the characters in UTF-8.
+     *
+     * @param source characters to encode
+     * @return encoded bytes
+     */
+    public static byte[] toUtf8Bytes(CharSequence source) {
+        byte[] bytes = new byte[utf8Length(source)];
+        encodeUtf8(source, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Encode the characters in UTF-8 and put them into the buffer at its position.
+     * Heap buffers are written directly through their backing array.
+     *
+     * @param source characters to encode
+     * @param buffer destination buffer
+     * @return number of written bytes
+     * @throws BufferOverflowException when encoded characters do not fit into the buffer. Buffer is not changed in this case.
+     */
+    public static int encodeUtf8(CharSequence source, ByteBuffer buffer) {
+        int length = utf8Length(source);
+        if (length > buffer.remaining()) {
+            throw new BufferOverflowException();
+        }
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            encodeUtf8(source, buffer.array(), start);
+            // Cast keeps the code compatible with java 8, where position(int) is not overridden in ByteBuffer
+            ((Buffer) buffer).position(buffer.position() + length);
+        } else if (length == source.length()) {
+            // Each character takes single byte - it is either ASCII or unpaired surrogate
+            for (int i = 0; i < length; i++) {
+                char c = source.charAt(i);
+                buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+            }
+        } else {
+            buffer.put(toUtf8Bytes(source));
+        }
+        return length;
+    }
+
     /**
      * Count number of variation of words in case insensitive manner.
      * For example for word "a" - there are 2 variation ("a" and "A").
@@ -82,6 +232,32 @@ public final class Util {
         return ConstantsProvider.BIG_INTEGER_TWO.pow(switchableCase);
     }
 
+    /**
+     * Count number of values of repetition: {@code base^from + base^(from + 1) + ... + base^to}.
+     * Sum is computed with the closed form of geometric series, so it does not depend on the number of terms.
+     *
+     * @param base number of values of the repeated element
+     * @param from minimal number of repetitions
+     * @param to   maximal number of repetitions, inclusive
+     * @return number of values or zero, if {@code to < from}
+     */
+    public static BigInteger geometricSum(BigInteger base, int from, int to) {
+        if (to < from) {
+            return BigInteger.ZERO;
+        }
+        if (base.signum() == 0) {
+            return from == 0 ? BigInteger.ONE : BigInteger.ZERO;
+        }
+        if (base.equals(BigInteger.ONE)) {
+            return BigInteger.valueOf((long) to - from + 1);
+        }
+        // base^from * (base^(to - from + 1) - 1) / (base - 1)
+        return base.pow(from)
+                   .multiply(base.pow(to - from + 1)
+                                 .subtract(BigInteger.ONE))
+                   .divide(base.subtract(BigInteger.ONE));
+    }
+
     /**
      * Finds next case sensitive character.
      * Case sensitive character is either lower-case or upper-case character.
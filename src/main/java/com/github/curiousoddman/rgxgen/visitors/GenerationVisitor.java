@@ -19,6 +19,8 @@ package com.github.curiousoddman.rgxgen.visitors;
 import com.github.curiousoddman.rgxgen.config.RgxGenOption;
 import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
 import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.random.DelegatingRandom;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
 
 import java.util.Map;
@@ -32,11 +34,24 @@ public class GenerationVisitor implements NodeVisitor {
 
     protected final StringBuilder        aStringBuilder = new StringBuilder();
     protected final Map<Integer, String> aGroupValues;
+    /**
+     * Random of the generation. Values are taken from {@link #aRandomSource}, so it is kept only for the subclasses.
+     */
     protected final Random               aRandom;
+    protected final RandomSource         aRandomSource;
     protected final RgxGenProperties     properties;
 
     protected GenerationVisitor(Random random, Map<Integer, String> groupValues, RgxGenProperties properties) {
+        this(random, RandomSource.of(random), groupValues, properties);
+    }
+
+    protected GenerationVisitor(RandomSource random, Map<Integer, String> groupValues, RgxGenProperties properties) {
+        this(DelegatingRandom.of(random), random, groupValues, properties);
+    }
+
+    private GenerationVisitor(Random random, RandomSource randomSource, Map<Integer, String> groupValues, RgxGenProperties properties) {
         aRandom = random;
+        aRandomSource = randomSource;
         aGroupValues = groupValues;
         this.properties = properties;
     }
@@ -44,14 +59,14 @@ public class GenerationVisitor implements NodeVisitor {
     @Override
     public void visit(SymbolSet node) {
         SymbolSetIndexer indexer = node.getSymbolSetIndexer();
-        int idx = aRandom.nextInt(indexer.size());
+        int idx = aRandomSource.nextInt(indexer.size());
         aStringBuilder.append(indexer.get(idx));
     }
 
     @Override
     public void visit(Choice node) {
         Node[] nodes = node.getNodes();
-        int idx = aRandom.nextInt(nodes.length);
+        int idx = aRandomSource.nextInt(nodes.length);
         nodes[idx].visit(this);
     }
 
@@ -65,7 +80,7 @@ public class GenerationVisitor implements NodeVisitor {
         int max = node.getMax() == -1 ? RgxGenOption.INFINITE_PATTERN_REPETITION.getFromProperties(properties) : node.getMax();
         int repeat = node.getMin() >= max ?
                      node.getMin() :
-                     node.getMin() + aRandom.nextInt(max + 1 - node.getMin());
+                     node.getMin() + aRandomSource.nextInt(max + 1 - node.getMin());
 
         for (int i = 0; i < repeat; ++i) {
             node.getNode().visit(this);
@@ -81,7 +96,7 @@ public class GenerationVisitor implements NodeVisitor {
 
     @Override
     public void visit(NotSymbol node) {
-        GenerationVisitor nmgv = new NotMatchingGenerationVisitor(aRandom, aGroupValues, properties);
+        GenerationVisitor nmgv = new NotMatchingGenerationVisitor(aRandomSource, aGroupValues, properties);
         node.getNode().visit(nmgv);
         aStringBuilder.append(nmgv.aStringBuilder);
     }
@@ -101,4 +116,14 @@ public class GenerationVisitor implements NodeVisitor {
     public String getString() {
         return aStringBuilder.toString();
     }
+
+    /**
+     * Get generated value without copying it into a String.
+     * The builder is owned by the visitor and must not be modified.
+     *
+     * @return builder containing generated value
+     */
+    public StringBuilder getStringBuilder() {
+        return aStringBuilder;
+    }
 }
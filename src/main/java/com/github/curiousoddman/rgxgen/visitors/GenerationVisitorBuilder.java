@@ -18,6 +18,7 @@ package com.github.curiousoddman.rgxgen.visitors;
 
 import com.github.curiousoddman.rgxgen.config.RgxGenOption;
 import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,7 +27,7 @@ import java.util.Random;
 public class GenerationVisitorBuilder {
     private final boolean aGenerateMatching;
 
-    private Random               aRandom;
+    private RandomSource         aRandom;
     private Map<Integer, String> aGroupsValues;
     private RgxGenProperties     aProperties;
 
@@ -36,13 +37,18 @@ public class GenerationVisitorBuilder {
     }
 
     public GenerationVisitorBuilder withRandom(Random random) {
+        aRandom = RandomSource.of(random);
+        return this;
+    }
+
+    public GenerationVisitorBuilder withRandom(RandomSource random) {
         aRandom = random;
         return this;
     }
 
     public GenerationVisitor get() {
         if (aRandom == null) {
-            aRandom = new Random();
+            aRandom = RandomSource.of(new Random());
         }
 
         if (aGroupsValues == null) {
@@ -19,6 +19,7 @@ package com.github.curiousoddman.rgxgen.visitors;
 import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
 import com.github.curiousoddman.rgxgen.nodes.FinalSymbol;
 import com.github.curiousoddman.rgxgen.nodes.SymbolSet;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 import com.github.curiousoddman.rgxgen.util.Util;
 import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
 
@@ -27,19 +28,23 @@ import java.util.Random;
 
 public class GenerationVisitorCaseInsensitive extends GenerationVisitor {
     protected GenerationVisitorCaseInsensitive(Random random, Map<Integer, String> groupValues, RgxGenProperties properties) {
+        this(RandomSource.of(random), groupValues, properties);
+    }
+
+    protected GenerationVisitorCaseInsensitive(RandomSource random, Map<Integer, String> groupValues, RgxGenProperties properties) {
         super(random, groupValues, properties);
     }
 
     @Override
     public void visit(SymbolSet node) {
         SymbolSetIndexer symbolSetIndexer = node.getCaseInsensitiveSymbolSetIndexer();
-        int idx = aRandom.nextInt(symbolSetIndexer.size());
+        int idx = aRandomSource.nextInt(symbolSetIndexer.size());
         aStringBuilder.append(symbolSetIndexer.get(idx));
     }
 
     @Override
     public void visit(FinalSymbol node) {
         String original = node.getValue();
-        aStringBuilder.append(Util.randomlyChangeCase(aRandom, original));
+        aStringBuilder.append(Util.randomlyChangeCase(aRandomSource, original));
     }
 }
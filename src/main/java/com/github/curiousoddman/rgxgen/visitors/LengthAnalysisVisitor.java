@@ -0,0 +1,174 @@
+package com.github.curiousoddman.rgxgen.visitors;
+
+/* **************************************************************************
+   Copyright 2019 Vladislavs Varslavans
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+/* **************************************************************************/
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.nodes.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes minimal, maximal and expected length of values generated for a node.
+ * Infinite repetitions are limited with {@link RgxGenOption#INFINITE_PATTERN_REPETITION}, same as during generation.
+ * <p>
+ * After visiting a node the getters return lengths for that node.
+ */
+public class LengthAnalysisVisitor implements NodeVisitor {
+    /**
+     * Maximal length that cannot be determined statically - e.g. for not matching nodes.
+     */
+    public static final long UNBOUNDED = -1;
+
+    private final Map<Integer, Long>   aGroupMax      = new HashMap<>();
+    private final Map<Integer, Double> aGroupExpected = new HashMap<>();
+    private final int                  aInfiniteRepetition;
+
+    private long   aMin;
+    private long   aMax;
+    private double aExpected;
+
+    public LengthAnalysisVisitor(RgxGenProperties properties) {
+        aInfiniteRepetition = RgxGenOption.INFINITE_PATTERN_REPETITION.getFromProperties(properties);
+    }
+
+    private void set(long min, long max, double expected) {
+        aMin = min;
+        aMax = max;
+        aExpected = expected;
+    }
+
+    private static long add(long a, long b) {
+        if (a == UNBOUNDED || b == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        long result = a + b;
+        return result < 0 ? UNBOUNDED : result;
+    }
+
+    private static long multiply(long a, long b) {
+        if (a == UNBOUNDED || b == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        if (a != 0 && b > Long.MAX_VALUE / a) {
+            return UNBOUNDED;
+        }
+        return a * b;
+    }
+
+    @Override
+    public void visit(SymbolSet node) {
+        set(1, 1, 1);
+    }
+
+    @Override
+    public void visit(Choice node) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        double expected = 0;
+        Node[] nodes = node.getNodes();
+        for (Node n : nodes) {
+            n.visit(this);
+            min = Math.min(min, aMin);
+            max = aMax == UNBOUNDED || max == UNBOUNDED ? UNBOUNDED : Math.max(max, aMax);
+            expected += aExpected;
+        }
+        set(nodes.length == 0 ? 0 : min, max, nodes.length == 0 ? 0 : expected / nodes.length);
+    }
+
+    @Override
+    public void visit(FinalSymbol node) {
+        int length = node.getValue().length();
+        set(length, length, length);
+    }
+
+    @Override
+    public void visit(Repeat node) {
+        int min = node.getMin();
+        int max = Math.max(min, node.getMax() == -1 ? aInfiniteRepetition : node.getMax());
+        node.getNode().visit(this);
+        set(multiply(aMin, min), multiply(aMax, max), aExpected * (min + max) / 2);
+    }
+
+    @Override
+    public void visit(Sequence node) {
+        long min = 0;
+        long max = 0;
+        double expected = 0;
+        for (Node n : node.getNodes()) {
+            n.visit(this);
+            min = add(min, aMin);
+            max = add(max, aMax);
+            expected += aExpected;
+        }
+        set(min, max, expected);
+    }
+
+    @Override
+    public void visit(NotSymbol node) {
+        node.getNode().visit(this);
+        // Not matching value might be of any length, the length of matching value is just a guess
+        set(0, UNBOUNDED, aExpected);
+    }
+
+    @Override
+    public void visit(GroupRef node) {
+        Long max = aGroupMax.get(node.getIndex());
+        // Group might be not captured at the time of reference
+        if (max == null) {
+            set(0, UNBOUNDED, 0);
+        } else {
+            set(0, max, aGroupExpected.get(node.getIndex()));
+        }
+    }
+
+    @Override
+    public void visit(Group node) {
+        node.getNode().visit(this);
+        aGroupMax.put(node.getIndex(), aMax);
+        aGroupExpected.put(node.getIndex(), aExpected);
+    }
+
+    /**
+     * @return minimal length of generated values
+     */
+    public long getMinLength() {
+        return aMin;
+    }
+
+    /**
+     * @return maximal length of generated values or {@link #UNBOUNDED} if it cannot be determined
+     */
+    public long getMaxLength() {
+        return aMax;
+    }
+
+    /**
+     * @return expected length of generated values
+     */
+    public double getExpectedLength() {
+        return aExpected;
+    }
+
+    /**
+     * @return true if all generated values have the same length
+     */
+    public boolean isFixedLength() {
+        return aMin == aMax;
+    }
+}
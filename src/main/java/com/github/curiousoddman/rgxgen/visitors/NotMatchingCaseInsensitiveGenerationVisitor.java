@@ -18,12 +18,17 @@ package com.github.curiousoddman.rgxgen.visitors;
 
 import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
 import com.github.curiousoddman.rgxgen.nodes.SymbolSet;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 
 import java.util.Map;
 import java.util.Random;
 
 public class NotMatchingCaseInsensitiveGenerationVisitor extends NotMatchingGenerationVisitor {
     public NotMatchingCaseInsensitiveGenerationVisitor(Random random, Map<Integer, String> groupValues, RgxGenProperties properties) {
+        this(RandomSource.of(random), groupValues, properties);
+    }
+
+    public NotMatchingCaseInsensitiveGenerationVisitor(RandomSource random, Map<Integer, String> groupValues, RgxGenProperties properties) {
         super(random, groupValues, properties);
     }
 
@@ -21,6 +21,7 @@ import com.github.curiousoddman.rgxgen.model.SymbolRange;
 import com.github.curiousoddman.rgxgen.nodes.*;
 import com.github.curiousoddman.rgxgen.parsing.NodeTreeBuilder;
 import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
 import com.github.curiousoddman.rgxgen.visitors.helpers.SymbolSetIndexer;
 
 import java.util.Map;
@@ -39,6 +40,10 @@ public class NotMatchingGenerationVisitor extends GenerationVisitor {
     private static final SymbolRange ALL_SYMBOLS = ASCII_SYMBOL_RANGE;
 
     public NotMatchingGenerationVisitor(Random random, Map<Integer, String> groupValues, RgxGenProperties properties) {
+        this(RandomSource.of(random), groupValues, properties);
+    }
+
+    public NotMatchingGenerationVisitor(RandomSource random, Map<Integer, String> groupValues, RgxGenProperties properties) {
         super(random, groupValues, properties);
     }
 
@@ -52,7 +57,7 @@ public class NotMatchingGenerationVisitor extends GenerationVisitor {
         SymbolSetIndexer indexer = indexerFunction.apply(invertedNode);
         // There is only one way to generate not matching for any character - is to not generate anything
         if (indexer.size() != 0) {
-            int idx = aRandom.nextInt(indexer.size());
+            int idx = aRandomSource.nextInt(indexer.size());
             aStringBuilder.append(indexer.get(idx));
         }
     }
@@ -69,7 +74,7 @@ public class NotMatchingGenerationVisitor extends GenerationVisitor {
         Node[] nodes = node.getNodes();
         do {
             aStringBuilder.delete(pos, Integer.MAX_VALUE);
-            int i = aRandom.nextInt(nodes.length);
+            int i = aRandomSource.nextInt(nodes.length);
             nodes[i].visit(this);
             // To match group values along with generated values - we need to prepend groups values before the generated
         } while (pattern.matcher(valuePrefixBuilder + aStringBuilder.substring(pos)).matches());
@@ -101,13 +106,13 @@ public class NotMatchingGenerationVisitor extends GenerationVisitor {
     public void visit(FinalSymbol node) {
         String nodeValue = node.getValue();
         if (nodeValue.isEmpty()) {
-            aStringBuilder.append(getRandomCharacter(aRandom.nextInt(ALL_SYMBOLS.size())));
+            aStringBuilder.append(getRandomCharacter(aRandomSource.nextInt(ALL_SYMBOLS.size())));
         } else {
             StringBuilder builder = new StringBuilder(nodeValue.length());
             do {
                 builder.delete(0, Integer.MAX_VALUE);
                 nodeValue.chars()
-                         .map(c -> getRandomCharacter(aRandom.nextInt(ALL_SYMBOLS.size())))
+                         .map(c -> getRandomCharacter(aRandomSource.nextInt(ALL_SYMBOLS.size())))
                          .forEachOrdered(c -> builder.append((char) c));
             } while (equalsFinalSymbolRandomString(nodeValue, builder.toString()));
             aStringBuilder.append(builder);
@@ -136,7 +141,7 @@ public class NotMatchingGenerationVisitor extends GenerationVisitor {
     public void visit(NotSymbol node) {
         NodeTreeBuilder builder = new DefaultTreeBuilder(node.getPattern(), properties);
         Node subNode = builder.get();
-        GenerationVisitor generationVisitor = new GenerationVisitor(aRandom, aGroupValues, properties);
+        GenerationVisitor generationVisitor = new GenerationVisitor(aRandomSource, aGroupValues, properties);
         subNode.visit(generationVisitor);
         aStringBuilder.append(generationVisitor.getString());
     }
@@ -24,6 +24,7 @@ import com.github.curiousoddman.rgxgen.iterators.suppliers.*;
 import com.github.curiousoddman.rgxgen.nodes.*;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,21 +33,48 @@ import java.util.function.Supplier;
 import static com.github.curiousoddman.rgxgen.parsing.dflt.ConstantsProvider.makeAsciiCharacterArray;
 
 public class UniqueGenerationVisitor implements NodeVisitor {
-    private final List<Supplier<StringIterator>>        aIterators = new ArrayList<>();
+    private final List<Supplier<StringIterator>>        aIterators  = new ArrayList<>();
     private final Map<Integer, List<ReferenceIterator>> aReferenceIteratorMap;
     private final Map<Integer, StringIterator>          aGroupIterators;
     private final RgxGenProperties                      aProperties;
+    /**
+     * Indices of all referenced groups of the pattern. It is complete only when whole pattern is visited.
+     */
+    private final BitSet                                aReferencedGroups;
+    /**
+     * Indices of groups visited by this visitor and its children
+     */
+    private final BitSet                                aGroups     = new BitSet();
+    /**
+     * Indices of groups referenced by this visitor and its children
+     */
+    private final BitSet                                aReferences = new BitSet();
 
     public UniqueGenerationVisitor(RgxGenProperties properties) {
         this(new HashMap<>(), new HashMap<>(), properties);
     }
 
     public UniqueGenerationVisitor(Map<Integer, List<ReferenceIterator>> referenceIteratorMap, Map<Integer, StringIterator> groupIterators, RgxGenProperties properties) {
+        this(referenceIteratorMap, groupIterators, new BitSet(), properties);
+    }
+
+    private UniqueGenerationVisitor(Map<Integer, List<ReferenceIterator>> referenceIteratorMap, Map<Integer, StringIterator> groupIterators, BitSet referencedGroups,
+                                    RgxGenProperties properties) {
         aReferenceIteratorMap = referenceIteratorMap;
         aGroupIterators = groupIterators;
+        aReferencedGroups = referencedGroups;
         aProperties = properties;
     }
 
+    private UniqueGenerationVisitor newChildVisitor() {
+        return new UniqueGenerationVisitor(aReferenceIteratorMap, aGroupIterators, aReferencedGroups, aProperties);
+    }
+
+    private void addGroups(UniqueGenerationVisitor child) {
+        aGroups.or(child.aGroups);
+        aReferences.or(child.aReferences);
+    }
+
     @Override
     public void visit(SymbolSet node) {
         if (RgxGenOption.CASE_INSENSITIVE.getFromProperties(aProperties)) {
@@ -60,8 +88,9 @@ public class UniqueGenerationVisitor implements NodeVisitor {
     public void visit(Choice node) {
         List<List<Supplier<StringIterator>>> nodeIterators = new ArrayList<>(node.getNodes().length);
         for (Node n : node.getNodes()) {
-            UniqueGenerationVisitor v = new UniqueGenerationVisitor(aReferenceIteratorMap, aGroupIterators, aProperties);
+            UniqueGenerationVisitor v = newChildVisitor();
             n.visit(v);
+            addGroups(v);
             nodeIterators.add(v.aIterators);
         }
 
@@ -80,36 +109,49 @@ public class UniqueGenerationVisitor implements NodeVisitor {
     @Override
     public void visit(Repeat node) {
         // Getting all possible sub node contents
-        UniqueGenerationVisitor v = new UniqueGenerationVisitor(aReferenceIteratorMap, aGroupIterators, aProperties);
+        UniqueGenerationVisitor v = newChildVisitor();
         node.getNode()
             .visit(v);
-        aIterators.add(new IncrementalLengthIteratorSupplier(new PermutationsIteratorSupplier(v.aIterators), node.getMin(), node.getMax()));
+        addGroups(v);
+        // Iterators of repeated values can be reused, unless a reference has to follow the last created iterator of a group.
+        // Values can be shared, if in addition they do not depend on the groups outside
+        BitSet groups = v.aGroups;
+        BitSet references = v.aReferences;
+        BitSet referencedGroups = aReferencedGroups;
+        aIterators.add(new IncrementalLengthIteratorSupplier(new PermutationsIteratorSupplier(v.aIterators), node.getMin(), node.getMax(),
+                                                             () -> !groups.intersects(referencedGroups),
+                                                             () -> !groups.intersects(referencedGroups) && references.isEmpty()));
     }
 
     @Override
     public void visit(Sequence node) {
-        UniqueGenerationVisitor v = new UniqueGenerationVisitor(aReferenceIteratorMap, aGroupIterators, aProperties);
+        UniqueGenerationVisitor v = newChildVisitor();
         for (Node n : node.getNodes()) {
             n.visit(v);
         }
+        addGroups(v);
         aIterators.add(new PermutationsIteratorSupplier(v.aIterators));
     }
 
     @Override
     public void visit(NotSymbol node) {
-        aIterators.add(new NegativeIteratorSupplier(node.getPattern(), new IncrementalLengthIteratorSupplier(new ArrayIteratorSupplier(makeAsciiCharacterArray()), 0, -1)));
+        aIterators.add(new NegativeIteratorSupplier(node.getPattern(), new IncrementalLengthIteratorSupplier(new ArrayIteratorSupplier(makeAsciiCharacterArray()), 0, -1, () -> true, () -> true)));
     }
 
     @Override
     public void visit(GroupRef node) {
+        aReferencedGroups.set(node.getIndex());
+        aReferences.set(node.getIndex());
         aIterators.add(new ReferenceIteratorSupplier(aReferenceIteratorMap, aGroupIterators, node.getIndex()));
     }
 
     @Override
     public void visit(Group node) {
-        UniqueGenerationVisitor v = new UniqueGenerationVisitor(aReferenceIteratorMap, aGroupIterators, aProperties);
+        UniqueGenerationVisitor v = newChildVisitor();
         node.getNode()
             .visit(v);
+        addGroups(v);
+        aGroups.set(node.getIndex());
 
         aIterators.add(new GroupIteratorSupplier(new PermutationsIteratorSupplier(v.aIterators), aReferenceIteratorMap, aGroupIterators, node.getIndex()));
     }
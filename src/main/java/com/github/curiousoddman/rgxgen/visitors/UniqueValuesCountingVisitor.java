@@ -82,12 +82,9 @@ public class UniqueValuesCountingVisitor implements NodeVisitor {
             if (node.getMax() < 0 || !countingVisitor.aCount.isPresent()) {
                 aCount = Optional.empty();
             } else {
-                BigInteger currentValue = aCount.get();
                 BigInteger nodesValue = countingVisitor.aCount.get();
-                for (int i = node.getMin(); i <= node.getMax(); i++) {
-                    currentValue = currentValue.add(nodesValue.pow(i));
-                }
-                aCount = Optional.of(currentValue);
+                aCount = Optional.of(aCount.get()
+                                           .add(Util.geometricSum(nodesValue, node.getMin(), node.getMax())));
             }
         }
     }
@@ -17,6 +17,7 @@ package com.github.curiousoddman.rgxgen.visitors.helpers;
 /* **************************************************************************/
 
 
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
 import com.github.curiousoddman.rgxgen.model.SymbolRange;
 import com.github.curiousoddman.rgxgen.nodes.SymbolSet;
 import com.github.curiousoddman.rgxgen.util.chars.CharList;
@@ -24,13 +25,38 @@ import com.github.curiousoddman.rgxgen.util.chars.CharList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Maps index to a character of the symbol set.
+ * <p>
+ * Sets of a single range are indexed arithmetically. Other sets up to the flatten limit are flattened into an array,
+ * larger sets are indexed with binary search over the ranges.
+ */
 public class SymbolSetIndexer {
+    /**
+     * Default size of the largest set that is flattened into an array.
+     *
+     * @see RgxGenOption#SYMBOL_SET_FLATTEN_LIMIT
+     */
+    public static final int DEFAULT_FLATTEN_LIMIT = RgxGenOption.SYMBOL_SET_FLATTEN_LIMIT.getDefault();
+
     private final CharList          symbols;
     private final List<SymbolRange> symbolRanges;
     private final int[]             rangeOffsets;
     private final int               size;
+    private final int               singleRangeFrom;
+    private final char[]            flattened;
 
     public SymbolSetIndexer(SymbolSet symbolSet) {
+        this(symbolSet, DEFAULT_FLATTEN_LIMIT);
+    }
+
+    /**
+     * Create indexer for the symbol set.
+     *
+     * @param symbolSet    symbol set to index
+     * @param flattenLimit sets up to this size are flattened into an array
+     */
+    public SymbolSetIndexer(SymbolSet symbolSet, int flattenLimit) {
         symbols = symbolSet.getSymbols();
         symbolRanges = symbolSet.getSymbolRanges();
 
@@ -54,6 +80,27 @@ public class SymbolSetIndexer {
             rangeOffsets = new int[0];
         }
         size = tmpSize;
+        singleRangeFrom = symbols.size() == 0 && rangesCount == 1 ? symbolRanges.get(0).getFrom() : -1;
+        flattened = singleRangeFrom == -1 && size <= flattenLimit ? getAllSlow() : null;
+    }
+
+    private SymbolSetIndexer(SymbolSetIndexer indexer, int flattenLimit) {
+        symbols = indexer.symbols;
+        symbolRanges = indexer.symbolRanges;
+        rangeOffsets = indexer.rangeOffsets;
+        size = indexer.size;
+        singleRangeFrom = indexer.singleRangeFrom;
+        flattened = singleRangeFrom == -1 && size <= flattenLimit ? getAllSlow() : null;
+    }
+
+    /**
+     * Get indexer of the same set with different flatten limit.
+     *
+     * @param flattenLimit sets up to this size are flattened into an array
+     * @return indexer with given flatten limit
+     */
+    public SymbolSetIndexer withFlattenLimit(int flattenLimit) {
+        return new SymbolSetIndexer(this, flattenLimit);
     }
 
     public int size() {
@@ -61,14 +108,28 @@ public class SymbolSetIndexer {
     }
 
     public char[] getAll() {
+        return flattened == null ? getAllSlow() : flattened.clone();
+    }
+
+    private char[] getAllSlow() {
         char[] chars = new char[size];
         for (int i = 0; i < size; i++) {
-            chars[i] = get(i);
+            chars[i] = search(i);
         }
         return chars;
     }
 
     public char get(int seed) {
+        if (flattened != null) {
+            return flattened[seed];
+        }
+        if (singleRangeFrom != -1) {
+            return (char) (singleRangeFrom + seed);
+        }
+        return search(seed);
+    }
+
+    private char search(int seed) {
         if (seed < symbols.size()) {
             return symbols.get(seed);
         }
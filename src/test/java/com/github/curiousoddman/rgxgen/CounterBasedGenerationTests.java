@@ -0,0 +1,76 @@
+package com.github.curiousoddman.rgxgen;
+
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CounterBasedGenerationTests {
+    public static Stream<TestPattern> getPatterns() {
+        return Arrays.stream(TestPattern.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void valueDependsOnlyOnSeedAndIndexTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        Generator generator = rgxGen.newGenerator();
+        for (long i = 0; i < 50; i++) {
+            String value = rgxGen.generate(42, i);
+            assertEquals(value, rgxGen.generate(42, i));
+            assertEquals(value, generator.generate(42, i));
+        }
+        // Out of order access gives the same values
+        for (long i = 49; i >= 0; i--) {
+            assertEquals(rgxGen.generate(42, i), generator.generate(42, i));
+        }
+    }
+
+    @Test
+    public void valuesAreMatchingTest() {
+        String pattern = "[a-f0-9]{4}-(ab|cd)+\\d?x*";
+        Pattern compiled = Pattern.compile(pattern);
+        RgxGen rgxGen = RgxGen.parse(pattern);
+        for (long i = 0; i < 1000; i++) {
+            String value = rgxGen.generate(1, i);
+            assertTrue(compiled.matcher(value).matches(), value);
+        }
+    }
+
+    @Test
+    public void differentIndicesAndSeedsGiveDifferentValuesTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-z]{20}");
+        long distinctIndices = LongStream.range(0, 1000)
+                                         .mapToObj(i -> rgxGen.generate(0, i))
+                                         .distinct()
+                                         .count();
+        assertEquals(1000, distinctIndices);
+        long distinctSeeds = LongStream.range(0, 1000)
+                                       .mapToObj(seed -> rgxGen.generate(seed, 0))
+                                       .distinct()
+                                       .count();
+        assertEquals(1000, distinctSeeds);
+    }
+
+    @Test
+    public void parallelStreamTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-z]{3,10}(x|y|z)\\d+(a|b)\\2");
+        List<String> expected = LongStream.range(0, 10_000)
+                                          .mapToObj(i -> rgxGen.generate(5, i))
+                                          .collect(Collectors.toList());
+        assertEquals(expected, rgxGen.parallelStream(5, 10_000).collect(Collectors.toList()));
+        assertEquals(expected, rgxGen.parallelStream(5, 10_000).sequential().collect(Collectors.toList()));
+        assertEquals(10_000, rgxGen.parallelStream(5, 10_000).spliterator().getExactSizeIfKnown());
+        assertEquals(0, rgxGen.parallelStream(5, 0).count());
+        assertThrows(IllegalArgumentException.class, () -> rgxGen.parallelStream(5, -1));
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.curiousoddman.rgxgen;
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GenerateIntoTests {
+    public static Stream<TestPattern> getPatterns() {
+        return Arrays.stream(TestPattern.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void generateIntoStringBuilderTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        StringBuilder sb = new StringBuilder("prefix");
+        int length = rgxGen.generateInto(TestingUtilities.newRandom(11), sb);
+        String expected = rgxGen.generate(TestingUtilities.newRandom(11));
+        assertEquals(expected.length(), length);
+        assertEquals("prefix" + expected, sb.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void generateIntoAppendableTest(TestPattern testPattern) throws IOException {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        StringWriter writer = new StringWriter();
+        int length = rgxGen.generateInto(TestingUtilities.newRandom(11), writer);
+        String expected = rgxGen.generate(TestingUtilities.newRandom(11));
+        assertEquals(expected.length(), length);
+        assertEquals(expected, writer.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void generateIntoArrayTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        String expected = rgxGen.generate(TestingUtilities.newRandom(11));
+        char[] buffer = new char[expected.length() + 3];
+        int length = rgxGen.generateInto(TestingUtilities.newRandom(11), buffer, 3);
+        assertEquals(expected.length(), length);
+        assertEquals(expected, new String(buffer, 3, length));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void generateNotMatchingIntoTest(TestPattern testPattern) throws IOException {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        String expected = rgxGen.generateNotMatching(TestingUtilities.newRandom(11));
+
+        StringBuilder sb = new StringBuilder();
+        assertEquals(expected.length(), rgxGen.generateNotMatchingInto(TestingUtilities.newRandom(11), sb));
+        assertEquals(expected, sb.toString());
+
+        StringWriter writer = new StringWriter();
+        assertEquals(expected.length(), rgxGen.generateNotMatchingInto(TestingUtilities.newRandom(11), writer));
+        assertEquals(expected, writer.toString());
+
+        char[] buffer = new char[expected.length()];
+        assertEquals(expected.length(), rgxGen.generateNotMatchingInto(TestingUtilities.newRandom(11), buffer, 0));
+        assertEquals(expected, new String(buffer));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void generateBytesTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        String expected = rgxGen.generate(TestingUtilities.newRandom(11));
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), rgxGen.generateBytes(TestingUtilities.newRandom(11)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[a-z0-9]{10}", "\\p{L}{3,10}", "[а-я]{5}é\\d", "\\x{1F600}x\\x{1F601}"})
+    public void generateIntoByteBufferTest(String pattern) {
+        RgxGen rgxGen = RgxGen.parse(pattern);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(100), ByteBuffer.allocateDirect(100)}) {
+            buffer.put((byte) 'x');
+            Generator generator = rgxGen.newGenerator(TestingUtilities.newRandom(3));
+            for (int seed = 0; seed < 5; seed++) {
+                byte[] expected = rgxGen.generate(TestingUtilities.newRandom(seed))
+                                        .getBytes(StandardCharsets.UTF_8);
+                int position = buffer.position();
+                assertEquals(expected.length, rgxGen.generateInto(TestingUtilities.newRandom(seed), buffer));
+                assertEquals(position + expected.length, buffer.position());
+                byte[] actual = new byte[expected.length];
+                ((ByteBuffer) buffer.duplicate()
+                                    .position(position)).get(actual);
+                assertArrayEquals(expected, actual);
+                buffer.clear();
+            }
+            byte[] expected = rgxGen.newGenerator(TestingUtilities.newRandom(3))
+                                    .generateBytes();
+            assertEquals(expected.length, generator.generateInto(buffer));
+            buffer.flip();
+            byte[] actual = new byte[buffer.remaining()];
+            buffer.get(actual);
+            assertArrayEquals(expected, actual);
+            buffer.clear();
+        }
+    }
+
+    @Test
+    public void generateIntoTooSmallByteBufferTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-z]{5}");
+        ByteBuffer buffer = ByteBuffer.allocate(6);
+        buffer.put((byte) 1)
+              .put((byte) 2);
+        assertThrows(BufferOverflowException.class, () -> rgxGen.generateInto(TestingUtilities.newRandom(1), buffer));
+        assertEquals(2, buffer.position());
+        assertThrows(BufferOverflowException.class, () -> rgxGen.newGenerator()
+                                                                .generateInto(ByteBuffer.allocateDirect(4)));
+    }
+
+    @Test
+    public void generateIntoCaseInsensitiveTest() {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, true);
+        RgxGen rgxGen = RgxGen.parse(properties, "[a-z]{5}abc(d|e)\\1");
+        Generator expected = rgxGen.newGenerator(TestingUtilities.newRandom(5));
+        Generator actual = rgxGen.newGenerator(TestingUtilities.newRandom(5));
+        char[] buffer = new char[100];
+        for (int i = 0; i < 100; i++) {
+            int length = actual.generateInto(buffer, 0);
+            assertEquals(expected.generate(), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void generateIntoTooSmallArrayTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-z]{5}");
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.generateInto(TestingUtilities.newRandom(1), new char[5], 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.newGenerator().generateInto(new char[4], 0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.curiousoddman.rgxgen;
+
+import com.github.curiousoddman.rgxgen.compiler.CompiledGenerator;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeneratorTests {
+    public static Stream<TestPattern> getPatterns() {
+        return Arrays.stream(TestPattern.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void sameValuesAsGenerateTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        Random random = TestingUtilities.newRandom(42);
+        Generator generator = rgxGen.newGenerator(TestingUtilities.newRandom(42));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rgxGen.generate(random), generator.generate());
+        }
+    }
+
+    @Test
+    public void groupValuesAreNotKeptBetweenCallsTest() {
+        RgxGen rgxGen = RgxGen.parse("(a)?b\\1");
+        Random random = TestingUtilities.newRandom(7);
+        Generator generator = rgxGen.newGenerator(TestingUtilities.newRandom(7));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rgxGen.generate(random), generator.generate());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[a-c][x-z]", "(GET|POST|PUT)", "(a|b)\\1x?"})
+    public void materializedPatternTest(String pattern) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.MATERIALIZATION_THRESHOLD.setInProperties(properties, 100);
+        RgxGen rgxGen = RgxGen.parse(properties, pattern);
+        Random random = TestingUtilities.newRandom(1);
+        Generator generator = rgxGen.newGenerator(TestingUtilities.newRandom(1));
+        CompiledGenerator compiled = rgxGen.compileGenerator();
+        RandomSource compiledRandom = RandomSource.of(TestingUtilities.newRandom(1));
+        for (int i = 0; i < 50; i++) {
+            String expected = rgxGen.generate(random);
+            assertEquals(expected, generator.generate());
+            assertEquals(expected, compiled.generate(compiledRandom));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(rgxGen.generate(TestingUtilities.newRandom(i)), rgxGen.newGenerator(TestingUtilities.newRandom(i))
+                                                                               .generate());
+        }
+        assertEquals(rgxGen.parallelStream(7, 100)
+                           .collect(Collectors.toList()),
+                     LongStream.range(0, 100)
+                               .mapToObj(i -> rgxGen.generate(7, i))
+                               .collect(Collectors.toList()));
+    }
+}
@@ -17,12 +17,15 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 public class NotMatchingGenerationTests {
@@ -91,4 +94,41 @@ public class NotMatchingGenerationTests {
                                  .matches();
         assertFalse(matches, "Should not match " + pattern + " got " + visitor.getString());
     }
+
+    @ParameterizedTest
+    @MethodSource("getTestData")
+    public void constructedWithRandomTest(String pattern, Node expectedNode, int seed) {
+        NodeTreeBuilder builder = new DefaultTreeBuilder(pattern, null);
+        Node node = builder.get();
+        GenerationVisitor expected = NotMatchingGenerationVisitor.builder()
+                                                                 .withRandom(TestingUtilities.newRandom(seed))
+                                                                 .get();
+        node.visit(expected);
+        GenerationVisitor actual = new NotMatchingGenerationVisitor(TestingUtilities.newRandom(seed), new HashMap<>(), new RgxGenProperties());
+        node.visit(actual);
+        assertEquals(expected.getString(), actual.getString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getTestData")
+    public void subclassRandomTest(String pattern, Node expectedNode, int seed) {
+        Random random = TestingUtilities.newRandom(seed);
+        RandomExposingVisitor visitor = new RandomExposingVisitor(random);
+        assertSame(random, visitor.getRandom());
+        new DefaultTreeBuilder(pattern, null).get()
+                                             .visit(visitor);
+        assertFalse(Pattern.compile(pattern)
+                           .matcher(visitor.getString())
+                           .matches());
+    }
+
+    private static class RandomExposingVisitor extends NotMatchingGenerationVisitor {
+        RandomExposingVisitor(Random random) {
+            super(random, new HashMap<>(), new RgxGenProperties());
+        }
+
+        Random getRandom() {
+            return aRandom;
+        }
+    }
 }
@@ -65,6 +65,11 @@ public class PerformanceTests {
         rgxGen.generate();
     }
 
+    @Benchmark
+    public void generatePreparsedTest() {
+        RGXGEN.generate();
+    }
+
     @Benchmark
     public void generateUniqueTest() {
         StringIterator stringIterator = RGXGEN.iterateUnique();
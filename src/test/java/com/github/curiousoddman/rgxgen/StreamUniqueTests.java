@@ -0,0 +1,88 @@
+package com.github.curiousoddman.rgxgen;
+
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.iterators.StringIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamUniqueTests {
+    private static final int LIMIT = 1000;
+
+    public static Stream<TestPattern> getPatterns() {
+        return Arrays.stream(TestPattern.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    public void sameAsIteratorTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        List<String> expected = new ArrayList<>();
+        StringIterator iterator = rgxGen.iterateUnique();
+        for (int i = 0; i < LIMIT && iterator.hasNext(); i++) {
+            expected.add(iterator.next());
+        }
+        assertEquals(expected, rgxGen.streamUnique()
+                                     .limit(LIMIT)
+                                     .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void parallelStreamTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-f]{3}(x|yz)[0-9]{2}");
+        List<String> expected = rgxGen.streamUnique()
+                                      .collect(Collectors.toList());
+        assertEquals(6 * 6 * 6 * 2 * 100, expected.size());
+        assertEquals(expected, rgxGen.streamUnique()
+                                     .parallel()
+                                     .collect(Collectors.toList()));
+        assertEquals(expected.size(), rgxGen.streamUnique()
+                                            .parallel()
+                                            .distinct()
+                                            .count());
+    }
+
+    @Test
+    public void splitTest() {
+        Spliterator<String> suffix = RgxGen.parse("[0-9]{3}")
+                                           .streamUnique()
+                                           .spliterator();
+        assertEquals(1000, suffix.getExactSizeIfKnown());
+        Spliterator<String> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(500, prefix.getExactSizeIfKnown());
+        assertEquals(500, suffix.getExactSizeIfKnown());
+        prefix.tryAdvance(v -> assertEquals("000", v));
+        suffix.tryAdvance(v -> assertEquals("500", v));
+    }
+
+    @Test
+    public void largeCountTest() {
+        Spliterator<String> spliterator = RgxGen.parse("[0-9]{30}")
+                                                .streamUnique()
+                                                .spliterator();
+        assertEquals(Long.MAX_VALUE, spliterator.getExactSizeIfKnown());
+        spliterator.trySplit();
+        spliterator.tryAdvance(v -> assertEquals(String.format("%030d", Long.MAX_VALUE / 2), v));
+    }
+
+    @Test
+    public void infinitePatternTest() {
+        RgxGen rgxGen = RgxGen.parse("a[bc]*");
+        assertEquals(Arrays.asList("a", "ab", "ac", "abb", "abc"), rgxGen.streamUnique()
+                                                                           .limit(5)
+                                                                           .collect(Collectors.toList()));
+        assertEquals(-1, rgxGen.streamUnique()
+                               .spliterator()
+                               .getExactSizeIfKnown());
+    }
+}
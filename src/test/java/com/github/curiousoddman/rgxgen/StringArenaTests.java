@@ -0,0 +1,85 @@
+package com.github.curiousoddman.rgxgen;
+
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringArenaTests {
+    @ParameterizedTest
+    @EnumSource(TestPattern.class)
+    void sameValuesAsGenerateTest(TestPattern testPattern) {
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        StringArena arena = rgxGen.generateBatch(50, RandomSource.xoroshiro(3));
+        RandomSource random = RandomSource.xoroshiro(3);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(rgxGen.generate(random));
+        }
+        assertEquals(50, arena.size());
+        assertEquals(expected, arena.toStrings());
+        int i = 0;
+        for (CharSequence value : arena) {
+            assertEquals(expected.get(i), value.toString());
+            assertEquals(expected.get(i).length(), arena.length(i));
+            assertEquals(expected.get(i), arena.getString(i));
+            ++i;
+        }
+        assertEquals(expected.stream()
+                             .mapToInt(String::length)
+                             .sum(), arena.totalLength());
+    }
+
+    @Test
+    void asciiValuesAreStoredAsBytesTest() {
+        assertTrue(RgxGen.parse("[a-z]{3}\\d")
+                         .generateBatch(10, RandomSource.xoroshiro(1))
+                         .isAscii());
+        StringArena arena = RgxGen.parse("[a-z]{3}ж")
+                                  .generateBatch(10, RandomSource.xoroshiro(1));
+        assertFalse(arena.isAscii());
+        assertEquals('ж', arena.get(9)
+                               .charAt(3));
+    }
+
+    @Test
+    void viewsTest() {
+        StringArena arena = RgxGen.parse("abc|def")
+                                  .generateBatch(3, RandomSource.xoroshiro(1));
+        CharSequence value = arena.get(1);
+        assertEquals(3, value.length());
+        CharSequence sub = value.subSequence(1, 3);
+        assertEquals(value.toString()
+                          .substring(1), sub.toString());
+        assertEquals(value.charAt(2), sub.charAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> value.charAt(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> value.subSequence(2, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.get(3));
+        assertEquals(3, arena.asList()
+                             .size());
+        assertEquals(arena.getString(2), arena.asList()
+                                              .get(2)
+                                              .toString());
+    }
+
+    @Test
+    void emptyBatchTest() {
+        StringArena arena = RgxGen.parse("a+")
+                                  .generateBatch(0, RandomSource.xoroshiro(1));
+        assertEquals(0, arena.size());
+        assertEquals(0, arena.totalLength());
+        Iterator<CharSequence> iterator = arena.iterator();
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertThrows(IllegalArgumentException.class, () -> RgxGen.parse("a")
+                                                                  .generateBatch(-1, RandomSource.xoroshiro(1)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.program.ProgramCompiler;
+import com.github.curiousoddman.rgxgen.program.TreeOptimizer;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GeneratorCompilerTests {
+    public static Stream<Arguments> getPatterns() {
+        return Stream.concat(
+                Arrays.stream(TestPattern.values())
+                      .map(p -> Arguments.of(p.getPattern(), false)),
+                Arrays.stream(TestPatternCaseInsensitive.values())
+                      .map(p -> Arguments.of(p.getPattern(), true)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void sameAsInterpreterTest(String pattern, boolean caseInsensitive) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, caseInsensitive);
+        verifySameValues(pattern, properties, !pattern.contains("(?<!") && !pattern.contains("(?!"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {
+            "[a-z0-9]{32}",
+            "\\d{4}-\\d{2}-\\d{2}",
+            "(a|b|c)x\\1{2,5}",
+            "\"quoted\\\\ \\t\\né中\"",
+            "((\\w{1,3})-){3}\\2(x|(y)\\4)*",
+            "(ab){0}(c){1,1}[^a]{0,3}",
+    })
+    void specialCasesTest(String pattern) {
+        verifySameValues(pattern, new RgxGenProperties(), true);
+    }
+
+    @Test
+    void largePatternTest() {
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            pattern.append("(x").append(i).append("|[a-f]{2,").append(i % 7 + 2).append("}|y)-");
+        }
+        verifySameValues(pattern.toString(), new RgxGenProperties(), true);
+    }
+
+    @Test
+    void notSymbolsAreInterpretedTest() {
+        RgxGen rgxGen = RgxGen.parse("foo(?!bar)");
+        CompiledGenerator generator = rgxGen.compileGenerator();
+        assertInstanceOf(InterpretedGenerator.class, generator);
+        assertEquals(rgxGen.generate(TestingUtilities.newRandom(1)), generator.generate(RandomSource.of(TestingUtilities.newRandom(1))));
+    }
+
+    private static void verifySameValues(String pattern, RgxGenProperties properties, boolean expectCompiled) {
+        RgxGen rgxGen = RgxGen.parse(properties, pattern);
+        CompiledGenerator generator = rgxGen.compileGenerator();
+        if (expectCompiled) {
+            assumeTrue(GeneratorCompiler.isAvailable());
+            // Compilation errors are reported instead of falling back to the interpreter
+            Node node = TreeOptimizer.optimize(new DefaultTreeBuilder(pattern, properties).get(), properties);
+            assertDoesNotThrow(() -> assertNotNull(GeneratorCompiler.compileToBytecode(node, properties, ProgramCompiler.compile(node, properties))));
+            assertFalse(generator instanceof InterpretedGenerator, "Pattern was not compiled");
+        }
+        Random random = TestingUtilities.newRandom(42);
+        Random compiledRandom = TestingUtilities.newRandom(42);
+        RandomSource compiledSource = RandomSource.of(compiledRandom);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(rgxGen.generate(random), generator.generate(compiledSource));
+        }
+    }
+}
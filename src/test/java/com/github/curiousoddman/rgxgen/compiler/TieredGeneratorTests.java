@@ -0,0 +1,179 @@
+package com.github.curiousoddman.rgxgen.compiler;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.model.OptimizationLevel;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.program.Program;
+import com.github.curiousoddman.rgxgen.program.ProgramCompiler;
+import com.github.curiousoddman.rgxgen.program.ProgramExecutor;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredGeneratorTests {
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(TestPattern.class)
+    void sameValuesAcrossPromotionsTest(TestPattern testPattern) {
+        RgxGenProperties properties = thresholds(3, 6);
+        Node node = new DefaultTreeBuilder(testPattern.getPattern(), properties).get();
+        TieredGenerator tiered = new TieredGenerator(node, properties);
+        VisitorGenerator visitor = new VisitorGenerator(node, properties);
+        RandomSource tieredRandom = RandomSource.xoroshiro(testPattern.ordinal());
+        RandomSource visitorRandom = RandomSource.xoroshiro(testPattern.ordinal());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(visitor.generate(visitorRandom), tiered.generate(tieredRandom));
+        }
+    }
+
+    @Test
+    void promotedAfterThresholdTest() {
+        RgxGenProperties properties = thresholds(2, -1);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder("[a-z]{3}(x|y)", properties).get(), properties);
+        RandomSource random = RandomSource.xoroshiro(1);
+        for (int i = 0; i < 2; i++) {
+            tiered.generate(random);
+            assertTrue(tiered.getEngine() instanceof VisitorGenerator);
+        }
+        tiered.generate(random);
+        CompiledGenerator engine = tiered.getEngine();
+        assertTrue(engine instanceof InterpretedGenerator);
+        for (int i = 0; i < 100; i++) {
+            tiered.generate(random);
+        }
+        assertSame(engine, tiered.getEngine());
+    }
+
+    @Test
+    void zeroThresholdUsesProgramImmediatelyTest() {
+        RgxGenProperties properties = thresholds(0, -1);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder("\\d+", properties).get(), properties);
+        assertTrue(tiered.getEngine() instanceof InterpretedGenerator);
+    }
+
+    @Test
+    void zeroThresholdWithMaterializationTest() {
+        RgxGenProperties properties = thresholds(0, -1);
+        RgxGenOption.MATERIALIZATION_THRESHOLD.setInProperties(properties, 100);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder("\\d+", properties).get(), properties);
+        tiered.generate(RandomSource.xoroshiro(1));
+        assertTrue(tiered.getEngine() instanceof InterpretedGenerator);
+    }
+
+    @Test
+    void smallLanguageIsMaterializedTest() {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.MATERIALIZATION_THRESHOLD.setInProperties(properties, 100);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder("(GET|POST|PUT|GET)", properties).get(), properties);
+        // Values are counted only when the first value is generated
+        assertTrue(tiered.getEngine() instanceof VisitorGenerator);
+        tiered.generate(RandomSource.xoroshiro(1));
+        CompiledGenerator engine = tiered.getEngine();
+        assertTrue(engine instanceof MaterializedGenerator);
+        assertArrayEquals(new String[]{"GET", "POST", "PUT"}, ((MaterializedGenerator) engine).getValues());
+
+        RandomSource random = RandomSource.xoroshiro(5);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            String value = tiered.generate(random);
+            assertSame(value.intern(), value);
+            seen.add(value);
+        }
+        assertEquals(3, seen.size());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[A-F][0-9]", "(a|b)\\1{1,2}", "x?y?z?", "[a-c]{2}(1|2)"})
+    void materializedValuesMatchTest(String pattern) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.MATERIALIZATION_THRESHOLD.setInProperties(properties, 1000);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder(pattern, properties).get(), properties);
+        Pattern compiled = Pattern.compile(pattern);
+        RandomSource random = RandomSource.xoroshiro(7);
+        for (int i = 0; i < 100; i++) {
+            String value = tiered.generate(random);
+            assertTrue(compiled.matcher(value).matches(), value);
+        }
+        assertTrue(tiered.getEngine() instanceof MaterializedGenerator);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[a-z]{5}", "a+", "a(?!b)"})
+    void largeLanguageIsNotMaterializedTest(String pattern) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.MATERIALIZATION_THRESHOLD.setInProperties(properties, 1000);
+        TieredGenerator tiered = new TieredGenerator(new DefaultTreeBuilder(pattern, properties).get(), properties);
+        tiered.generate(RandomSource.xoroshiro(1));
+        assertFalse(tiered.getEngine() instanceof MaterializedGenerator);
+    }
+
+    private static RgxGenProperties thresholds(int program, int bytecode) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.PROGRAM_COMPILATION_THRESHOLD.setInProperties(properties, program);
+        RgxGenOption.BYTECODE_COMPILATION_THRESHOLD.setInProperties(properties, bytecode);
+        return properties;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(OptimizationLevel.class)
+    void sameIndexedValuesAfterPromotionTest(OptimizationLevel level) {
+        RgxGenProperties properties = thresholds(5, 10);
+        RgxGenOption.OPTIMIZATION_LEVEL.setInProperties(properties, level);
+        for (String pattern : new String[]{"(a|b|[a-z])(x|y|[a-z])", "(x|y)(ab|ab|c)\\1[0-9]{2,4}", "((a)|b)?c{3}"}) {
+            RgxGen rgxGen = RgxGen.parse(properties, pattern);
+            String[] expected = new String[20];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = rgxGen.generate(42, i);
+            }
+            // Values are generated again after the last promotion
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], rgxGen.generate(42, i), pattern);
+                assertEquals(expected[i], rgxGen.newGenerator()
+                                                 .generate(42, i), pattern);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(TestPattern.class)
+    void interpretedGeneratorReusesExecutorTest(TestPattern testPattern) throws Exception {
+        RgxGenProperties properties = new RgxGenProperties();
+        Program program = ProgramCompiler.compile(new DefaultTreeBuilder(testPattern.getPattern(), properties).get(), properties);
+        InterpretedGenerator generator = new InterpretedGenerator(program);
+        Runnable check = () -> {
+            RandomSource expectedRandom = RandomSource.xoroshiro(testPattern.ordinal());
+            RandomSource actualRandom = RandomSource.xoroshiro(testPattern.ordinal());
+            for (int i = 0; i < 20; i++) {
+                StringBuilder expected = new StringBuilder();
+                new ProgramExecutor(program).execute(expectedRandom, expected);
+                assertEquals(expected.toString(), generator.generate(actualRandom));
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> other = executor.submit(check);
+            check.run();
+            other.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
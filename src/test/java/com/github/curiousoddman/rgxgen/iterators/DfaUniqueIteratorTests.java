@@ -0,0 +1,191 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DfaUniqueIteratorTests {
+    private static final int     LIMIT       = 2000;
+    private static final Pattern UNSUPPORTED = Pattern.compile("\\\\[1-9k]|\\(\\?<?!");
+
+    public static Stream<Arguments> getPatterns() {
+        return Stream.concat(
+                Arrays.stream(TestPattern.values())
+                      // Single value of a long repetition is checked separately, full walk over it is slow
+                      .filter(p -> p != TestPattern.A_REPEAT_60K)
+                      .map(p -> Arguments.of(p.getPattern(), false)),
+                Arrays.stream(TestPatternCaseInsensitive.values())
+                      .map(p -> Arguments.of(p.getPattern(), true)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void valuesAreUniqueAndOrderedTest(String pattern, boolean caseInsensitive) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, caseInsensitive);
+        RgxGen rgxGen = RgxGen.parse(properties, pattern);
+        StringIterator iterator;
+        try {
+            iterator = rgxGen.iterateUniqueExact();
+        } catch (UnsupportedOperationException e) {
+            assertTrue(UNSUPPORTED.matcher(pattern)
+                                  .find(), e.getMessage());
+            return;
+        }
+        Pattern compiled = compile(pattern, caseInsensitive);
+        String previous = null;
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < LIMIT && iterator.hasNext(); i++) {
+            String value = iterator.next();
+            assertTrue(compiled == null || compiled.matcher(value)
+                                                   .matches(), value);
+            if (previous != null) {
+                assertTrue(previous.length() < value.length()
+                                   || previous.length() == value.length() && previous.compareTo(value) < 0,
+                           previous + " is not before " + value);
+            }
+            previous = value;
+            values.add(value);
+        }
+        if (!iterator.hasNext()) {
+            // All values are found - these are the same values, that iterator returns, without duplicates
+            Set<String> expected = new HashSet<>();
+            StringIterator uniqueIterator = rgxGen.iterateUnique();
+            while (uniqueIterator.hasNext()) {
+                String value = uniqueIterator.next();
+                if (compiled == null || compiled.matcher(value)
+                                                .matches()) {
+                    expected.add(value);
+                }
+            }
+            assertEquals(expected, new HashSet<>(values));
+        }
+    }
+
+    /**
+     * @return compiled pattern or null, if values of the pattern cannot be verified with java regex
+     */
+    private static Pattern compile(String pattern, boolean caseInsensitive) {
+        if (pattern.contains("(?=") || pattern.contains("(?<=")) {
+            // Lookaheads are generated as part of the value
+            return null;
+        }
+        try {
+            return Pattern.compile(pattern, caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    @Test
+    void noDuplicatesTest() {
+        StringIterator iterator = RgxGen.parse("(a{0,2}|b{0,2})")
+                                        .iterateUniqueExact();
+        List<String> values = new ArrayList<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next());
+        }
+        assertEquals(Arrays.asList("", "a", "b", "aa", "bb"), values);
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals("bb", iterator.current());
+
+        iterator.reset();
+        assertEquals("", iterator.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[ab]*", "(a|ab)(c|bcd)", "(aa)*b", "x[^a]?", "([0-9]|[5-9a]){2}"})
+    void sameAsBruteForceTest(String pattern) {
+        Pattern compiled = Pattern.compile(pattern);
+        StringIterator iterator = RgxGen.parse(pattern)
+                                        .iterateUniqueExact();
+        // All strings up to length 4 of characters, used in patterns, in the order of enumeration
+        char[] alphabet = "0123456789abcdx~".toCharArray();
+        List<String> candidates = new ArrayList<>();
+        candidates.add("");
+        List<String> expected = new ArrayList<>();
+        for (int length = 0; length <= 4; length++) {
+            List<String> longer = new ArrayList<>();
+            for (String candidate : candidates) {
+                if (compiled.matcher(candidate)
+                            .matches()) {
+                    expected.add(candidate);
+                }
+                for (char c : alphabet) {
+                    longer.add(candidate + c);
+                }
+            }
+            candidates = longer;
+        }
+        for (String value : expected) {
+            String actual = iterator.next();
+            while (actual.length() <= 4 && !actual.chars()
+                                                  .allMatch(c -> new String(alphabet).indexOf(c) >= 0)) {
+                // Characters outside of the alphabet
+                actual = iterator.next();
+            }
+            assertEquals(value, actual);
+        }
+    }
+
+    @Test
+    void emptyLanguageTest() {
+        assertFalse(RgxGen.parse("a[^\\x00-\\x{FFFF}]")
+                          .iterateUniqueExact()
+                          .hasNext());
+    }
+
+    @Test
+    void largeRepeatTest() {
+        StringIterator iterator = RgxGen.parse("[a-c]{500}")
+                                        .iterateUniqueExact();
+        char[] chars = new char[500];
+        Arrays.fill(chars, 'a');
+        assertEquals(new String(chars), iterator.next());
+        chars[499] = 'b';
+        assertEquals(new String(chars), iterator.next());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {"[ab]*;1", "(a|b)*abb;4", "(ab|ab)c;4", "a{3}|b{3};6", "(a|b)(a|b);3", "(aa)*;2", "x{2,5};6", "a|b|[c-z]+;3"})
+    void minimalAutomatonTest(String pattern, int states) {
+        RgxGenProperties properties = new RgxGenProperties();
+        assertEquals(states, Dfa.build(new DefaultTreeBuilder(pattern, properties).get(), properties)
+                                .size());
+    }
+
+    @Test
+    void longRepeatTest() {
+        StringIterator iterator = RgxGen.parse(TestPattern.A_REPEAT_60K.getPattern())
+                                        .iterateUniqueExact();
+        String value = iterator.next();
+        assertEquals(60000, value.length());
+        assertTrue(value.chars()
+                        .allMatch(c -> c == 'a'));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void unsupportedPatternsTest() {
+        assertThrows(UnsupportedOperationException.class, () -> RgxGen.parse("(a)\\1")
+                                                                       .iterateUniqueExact());
+        assertThrows(UnsupportedOperationException.class, () -> RgxGen.parse("a(?!b)")
+                                                                       .iterateUniqueExact());
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.util.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalLengthIteratorTests {
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void sameValuesWithReusedSlotsTest(boolean reuseSlots) {
+        IncrementalLengthIterator expected = new IncrementalLengthIterator(() -> new ArrayIterator(new char[]{'a', 'b', 'c'}), 1, 4);
+        IncrementalLengthIterator actual = new IncrementalLengthIterator(() -> new ArrayIterator(new char[]{'a', 'b', 'c'}), 1, 4, reuseSlots);
+        for (int round = 0; round < 2; round++) {
+            while (expected.hasNext()) {
+                assertEquals(expected.next(), actual.next());
+                assertEquals(expected.current(), actual.current());
+            }
+            assertEquals(expected.hasNext(), actual.hasNext());
+            expected.reset();
+            actual.reset();
+        }
+    }
+
+    @Test
+    void slotsAreCreatedOnceTest() {
+        AtomicInteger created = new AtomicInteger();
+        IncrementalLengthIterator iterator = new IncrementalLengthIterator(() -> {
+            created.incrementAndGet();
+            return new ArrayIterator(new char[]{'a', 'b', 'c'});
+        }, 0, -1, true);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 1 + 3 + 9 + 27 + 81; i++) {
+                iterator.next();
+            }
+            assertEquals("aaaaa", iterator.next());
+            iterator.reset();
+        }
+        assertEquals(5, created.get());
+    }
+
+    @Test
+    void referencedGroupInRepeatTest() {
+        // Reference follows the group of the last repetition
+        StringIterator iterator = RgxGen.parse("x(a|b){1,2}\\1")
+                                        .iterateUnique();
+        StringBuilder sb = new StringBuilder();
+        while (iterator.hasNext()) {
+            sb.append(iterator.next())
+              .append(',');
+        }
+        assertEquals("xaa,xbb,xaaa,xabb,xbaa,xbbb,", sb.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0,3", "1,4", "2,2", "3,5"})
+    void sharedValuesTest(int min, int max) {
+        IncrementalLengthIterator expected = new IncrementalLengthIterator(() -> new ArrayIterator(new char[]{'a', 'b', 'c'}), min, max);
+        RepeatedValuesIterator actual = new RepeatedValuesIterator(new String[]{"a", "b", "c"}, min, max);
+        for (int round = 0; round < 2; round++) {
+            while (expected.hasNext()) {
+                assertTrue(actual.hasNext());
+                assertEquals(expected.next(), actual.next());
+                assertEquals(expected.current(), actual.current());
+            }
+            assertEquals(expected.hasNext(), actual.hasNext());
+            expected.reset();
+            actual.reset();
+        }
+    }
+
+    @Test
+    void sharedValuesOfUnboundedRepeatTest() {
+        IncrementalLengthIterator expected = new IncrementalLengthIterator(() -> new ArrayIterator(new char[]{'x', 'y'}), 0, -1);
+        RepeatedValuesIterator actual = new RepeatedValuesIterator(new String[]{"x", "y"}, 0, -1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.next(), actual.next());
+        }
+    }
+
+    @Test
+    void largeRepeatTest() {
+        RgxGen rgxGen = RgxGen.parse("[0-9]{1000,5000}");
+        assertEquals(BigInteger.TEN.pow(1000)
+                                   .multiply(BigInteger.TEN.pow(4001)
+                                                           .subtract(BigInteger.ONE))
+                                   .divide(BigInteger.valueOf(9)), rgxGen.getUniqueEstimation()
+                                                                         .orElseThrow(IllegalStateException::new));
+        StringIterator iterator = rgxGen.iterateUnique();
+        String zeros = Util.repeatChar('0', 999);
+        assertEquals(zeros + '0', iterator.next());
+        assertEquals(zeros + '1', iterator.next());
+        for (int i = 2; i < 10; i++) {
+            iterator.next();
+        }
+        assertEquals(Util.repeatChar('0', 998) + "10", iterator.next());
+    }
+}
@@ -123,6 +123,10 @@ public class IteratorResettingTests {
                 arguments("IncBi", new IncrementalLengthIterator(TestBiIterator::new, 1, 2), 3, Arrays.asList("x", "y", "xx", "x")),
                 arguments("IncBi", new IncrementalLengthIterator(TestBiIterator::new, 1, 2), 10, Arrays.asList("x", "y", "xx", "xy", "yx", "yy", null)),
 
+                arguments("IncReused", new IncrementalLengthIterator(TestIterator::new, 1, 2, true), 2, Arrays.asList("a", "aa", "a", "aa")),
+                arguments("IncReused", new IncrementalLengthIterator(TestBiIterator::new, 1, 2, true), 3, Arrays.asList("x", "y", "xx", "x", "y", "xx")),
+                arguments("IncReused", new IncrementalLengthIterator(TestBiIterator::new, 0, -1, true), 5, Arrays.asList("", "x", "y", "xx", "xy", "", "x")),
+
                 arguments("Perm", new PermutationsIterator(Arrays.asList(TestIterator::new, () -> new TestIterator("b"))), 1, Arrays.asList("ab", "ab", "ab")),
                 arguments("Perm", new PermutationsIterator(Arrays.asList(TestIterator::new, () -> new TestIterator("b"))), 2, Arrays.asList("ab", null, "ab")),
                 arguments("Perm", new PermutationsIterator(Arrays.asList(TestBiIterator::new, TestBiIterator::new)), 5, Arrays.asList("xx", "xy", "yx", "yy", null, "xx")),
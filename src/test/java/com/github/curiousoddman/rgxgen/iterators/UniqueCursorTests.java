@@ -0,0 +1,90 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueCursorTests {
+    private static final int LIMIT = 1000;
+
+    public static Stream<Arguments> getPatterns() {
+        return Stream.concat(
+                Arrays.stream(TestPattern.values())
+                      .map(p -> Arguments.of(p.getPattern(), false)),
+                Arrays.stream(TestPatternCaseInsensitive.values())
+                      .map(p -> Arguments.of(p.getPattern(), true)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void sameAsIteratorTest(String pattern, boolean caseInsensitive) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, caseInsensitive);
+        verifySameAsIterator(RgxGen.parse(properties, pattern));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[a-c]{2,3}", "(a|bc|[d-e]{1,2})x?", "a*b+", "((a|b)c{1,2}){2}", "x(?!y)", "(a|b)\\1{1,2}", "[ab]{0,2}(c|)"})
+    void specialCasesTest(String pattern) {
+        verifySameAsIterator(RgxGen.parse(pattern));
+    }
+
+    private static void verifySameAsIterator(RgxGen rgxGen) {
+        StringIterator iterator = rgxGen.iterateUnique();
+        UniqueCursor cursor = rgxGen.uniqueCursor();
+        for (int i = 0; i < LIMIT && iterator.hasNext(); i++) {
+            assertTrue(cursor.advance());
+            assertEquals(iterator.next(), cursor.current()
+                                                .toString());
+        }
+        if (!iterator.hasNext()) {
+            assertFalse(cursor.advance());
+        }
+    }
+
+    @Test
+    void allValuesTest() {
+        UniqueCursor cursor = RgxGen.parse("[a-c]{2}")
+                                    .uniqueCursor();
+        StringBuilder sb = new StringBuilder();
+        while (cursor.advance()) {
+            cursor.appendTo(sb);
+            sb.append(',');
+        }
+        assertEquals("aa,ab,ac,ba,bb,bc,ca,cb,cc,", sb.toString());
+        assertFalse(cursor.advance());
+        assertThrows(NoSuchElementException.class, cursor::current);
+
+        cursor.reset();
+        assertThrows(NoSuchElementException.class, cursor::current);
+        assertTrue(cursor.advance());
+        assertEquals("aa", cursor.current()
+                                 .toString());
+    }
+
+    @Test
+    void currentIsViewOfBufferTest() {
+        UniqueCursor cursor = RgxGen.parse("x[0-9]")
+                                    .uniqueCursor();
+        cursor.advance();
+        CharSequence current = cursor.current();
+        assertEquals('0', current.charAt(1));
+        cursor.advance();
+        assertEquals('1', current.charAt(1));
+        assertEquals("x1", current.subSequence(0, 2)
+                                  .toString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueRangeIteratorTests {
+    private static List<String> allValues(StringIterator iterator) {
+        List<String> values = new ArrayList<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next());
+        }
+        return values;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 100, 500})
+    void partitionsTest(int parts) {
+        RgxGen rgxGen = RgxGen.parse("[a-e]{2}(x|yz|[0-9]{0,1})");
+        List<String> expected = allValues(rgxGen.iterateUnique());
+        List<String> actual = new ArrayList<>();
+        for (int part = 0; part < parts; part++) {
+            actual.addAll(allValues(rgxGen.iterateUnique(part, parts)));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void resumeTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-c]{3}");
+        List<String> expected = allValues(rgxGen.iterateUnique());
+
+        UniqueRangeIterator iterator = rgxGen.iterateUnique(BigInteger.ZERO);
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            actual.add(iterator.next());
+        }
+        BigInteger checkpoint = iterator.getPosition();
+        assertEquals(BigInteger.TEN, checkpoint);
+        assertEquals(actual.get(9), iterator.current());
+
+        actual.addAll(allValues(rgxGen.iterateUnique(checkpoint)));
+        assertEquals(expected, actual);
+        assertThrows(NoSuchElementException.class, rgxGen.iterateUnique(BigInteger.valueOf(27))::next);
+    }
+
+    @Test
+    void resumePartTest() {
+        RgxGen rgxGen = RgxGen.parse("[0-9]{3}");
+        UniqueRangeIterator iterator = rgxGen.iterateUnique(1, 4);
+        assertEquals("250", iterator.next());
+        assertEquals("251", iterator.next());
+        BigInteger checkpoint = iterator.getPosition();
+
+        UniqueRangeIterator resumed = rgxGen.iterateUnique(1, 4);
+        resumed.seek(checkpoint);
+        List<String> values = allValues(resumed);
+        assertEquals(248, values.size());
+        assertEquals("252", values.get(0));
+        assertEquals("499", values.get(247));
+
+        resumed.reset();
+        assertEquals("250", resumed.next());
+        assertThrows(IllegalArgumentException.class, () -> resumed.seek(BigInteger.valueOf(100)));
+        assertThrows(IllegalArgumentException.class, () -> resumed.seek(BigInteger.valueOf(501)));
+    }
+
+    @Test
+    void largeRangeTest() {
+        RgxGen rgxGen = RgxGen.parse("[0-9]{30}");
+        BigInteger position = BigInteger.TEN.pow(29)
+                                            .multiply(BigInteger.valueOf(3));
+        UniqueRangeIterator iterator = rgxGen.iterateUnique(position);
+        assertEquals("3" + String.format("%029d", 0), iterator.next());
+        assertEquals("3" + String.format("%029d", 1), iterator.next());
+        assertEquals(position.add(BigInteger.valueOf(2)), iterator.getPosition());
+        assertEquals("7" + String.format("%029d", 0), rgxGen.iterateUnique(7, 10)
+                                                            .next());
+    }
+
+    @Test
+    void infinitePatternTest() {
+        RgxGen rgxGen = RgxGen.parse("a[bc]*");
+        UniqueRangeIterator iterator = rgxGen.iterateUnique(BigInteger.valueOf(3));
+        assertEquals("abb", iterator.next());
+        assertEquals("abc", iterator.next());
+        assertTrue(iterator.hasNext());
+        assertThrows(UnsupportedOperationException.class, () -> rgxGen.iterateUnique(0, 2));
+    }
+
+    @Test
+    void invalidArgumentsTest() {
+        RgxGen rgxGen = RgxGen.parse("[ab]");
+        assertThrows(IllegalArgumentException.class, () -> rgxGen.iterateUnique(BigInteger.valueOf(3)));
+        assertThrows(IllegalArgumentException.class, () -> rgxGen.iterateUnique(BigInteger.valueOf(-1)));
+        assertThrows(IllegalArgumentException.class, () -> rgxGen.iterateUnique(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> rgxGen.iterateUnique(0, 0));
+        assertFalse(rgxGen.iterateUnique(BigInteger.valueOf(2))
+                          .hasNext());
+    }
+}
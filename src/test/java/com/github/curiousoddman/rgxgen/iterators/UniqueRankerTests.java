@@ -0,0 +1,117 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueRankerTests {
+    private static final int LIMIT = 1000;
+
+    public static Stream<Arguments> getPatterns() {
+        return Stream.concat(
+                Arrays.stream(TestPattern.values())
+                      .map(p -> Arguments.of(p.getPattern(), false)),
+                Arrays.stream(TestPatternCaseInsensitive.values())
+                      .map(p -> Arguments.of(p.getPattern(), true)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void sameAsIteratorTest(String pattern, boolean caseInsensitive) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, caseInsensitive);
+        verifySameAsIterator(RgxGen.parse(properties, pattern));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[a-c]{2,3}", "(a|bc|[d-e]{1,2})x?", "a*b+", "((a|b)c{1,2}){2}", "x(?!y)", "(a|b)\\1{1,2}", "[ab]{0,2}(c|)", "(a|b){2,3}\\1", "[ab]*c[de]"})
+    void specialCasesTest(String pattern) {
+        verifySameAsIterator(RgxGen.parse(pattern));
+    }
+
+    private static void verifySameAsIterator(RgxGen rgxGen) {
+        StringIterator iterator = rgxGen.iterateUnique();
+        for (int i = 0; i < LIMIT && iterator.hasNext(); i++) {
+            String expected = iterator.next();
+            assertEquals(expected, rgxGen.uniqueAt(i), "Index " + i);
+            assertEquals(expected, rgxGen.uniqueAt(BigInteger.valueOf(i)), "Index " + i);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[a-c]{2}", "(a|b|cd){0,3}x", "[0-9]{20}", "a(b|c)\\1"})
+    void countTest(String pattern) {
+        UniqueRanker ranker = newRanker(pattern);
+        StringIterator iterator = RgxGen.parse(pattern)
+                                        .iterateUnique();
+        long count = 0;
+        for (; count < LIMIT && iterator.hasNext(); count++) {
+            iterator.next();
+        }
+        BigInteger expected = iterator.hasNext() ? RgxGen.parse(pattern)
+                                                         .getUniqueEstimation()
+                                                         .get() : BigInteger.valueOf(count);
+        assertEquals(Optional.of(expected), ranker.getCount());
+    }
+
+    @Test
+    void infiniteCountTest() {
+        assertEquals(Optional.empty(), newRanker("a[bc]*").getCount());
+        assertEquals(Optional.empty(), newRanker("x(?!y)").getCount());
+    }
+
+    @Test
+    void outOfRangeTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-c]{2}");
+        assertEquals("cc", rgxGen.uniqueAt(8));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.uniqueAt(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.uniqueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.uniqueAt(BigInteger.valueOf(9)));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.uniqueAt(BigInteger.valueOf(-1)));
+    }
+
+    @Test
+    void largeIndexTest() {
+        RgxGen rgxGen = RgxGen.parse("[0-9]{40}");
+        BigInteger index = new BigInteger("1234567890123456789012345678901234567890");
+        assertEquals(index.toString(), rgxGen.uniqueAt(index));
+        assertEquals("0000000000000000000000000000000000000000", rgxGen.uniqueAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> rgxGen.uniqueAt(BigInteger.TEN.pow(40)));
+    }
+
+    @Test
+    void largeIndexOfInfinitePatternTest() {
+        RgxGen rgxGen = RgxGen.parse("x[ab]*");
+        // Values are enumerated by length: 2^n values of length n follow 2^n - 1 shorter values
+        assertEquals("x" + repeat('a', 100), rgxGen.uniqueAt(BigInteger.ONE.shiftLeft(100)
+                                                                          .subtract(BigInteger.ONE)));
+        assertEquals("xb" + repeat('a', 99), rgxGen.uniqueAt(BigInteger.ONE.shiftLeft(100)
+                                                                           .add(BigInteger.ONE.shiftLeft(99))
+                                                                           .subtract(BigInteger.ONE)));
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static UniqueRanker newRanker(String pattern) {
+        return new UniqueRanker(new DefaultTreeBuilder(pattern, null).get(), null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.curiousoddman.rgxgen.iterators;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueSamplerTests {
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 17, 100, 1000, 4096, 4097, 65535})
+    void permutationTest(long size) {
+        IndexPermutation permutation = new IndexPermutation(BigInteger.valueOf(size), 42);
+        boolean[] seen = new boolean[(int) size];
+        for (long i = 0; i < size; i++) {
+            int value = (int) permutation.apply(i);
+            assertFalse(seen[value], "Duplicate " + value);
+            seen[value] = true;
+            assertEquals(BigInteger.valueOf(value), permutation.apply(BigInteger.valueOf(i)));
+        }
+    }
+
+    @Test
+    void largePermutationTest() {
+        BigInteger size = BigInteger.TEN.pow(30)
+                                        .add(BigInteger.valueOf(7));
+        IndexPermutation permutation = new IndexPermutation(size, 1);
+        assertFalse(permutation.isLongRange());
+        Set<BigInteger> values = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            BigInteger value = permutation.apply(BigInteger.valueOf(i));
+            assertTrue(value.signum() >= 0 && value.compareTo(size) < 0);
+            assertTrue(values.add(value));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[a-c]{2}", "(a|b|cd){0,3}x", "[0-9]{4}", "a(b|c)\\1", "x"})
+    void allValuesTest(String pattern) {
+        RgxGen rgxGen = RgxGen.parse(pattern);
+        Set<String> expected = new HashSet<>();
+        StringIterator iterator = rgxGen.iterateUnique();
+        List<String> ordered = new ArrayList<>();
+        while (iterator.hasNext()) {
+            ordered.add(iterator.next());
+        }
+        expected.addAll(ordered);
+
+        UniqueSampler sampler = rgxGen.sampleUnique(7);
+        assertEquals(BigInteger.valueOf(ordered.size()), sampler.getCount());
+        Set<String> actual = new HashSet<>();
+        List<String> sampled = new ArrayList<>();
+        while (sampler.hasNext()) {
+            sampled.add(sampler.next());
+            assertEquals(sampled.get(sampled.size() - 1), sampler.current());
+        }
+        actual.addAll(sampled);
+        assertEquals(ordered.size(), sampled.size());
+        assertEquals(expected, actual);
+        assertThrows(NoSuchElementException.class, sampler::next);
+
+        sampler.reset();
+        for (String value : sampled) {
+            assertEquals(value, sampler.next());
+        }
+    }
+
+    @Test
+    void sameSeedSameOrderTest() {
+        RgxGen rgxGen = RgxGen.parse("[A-Z]{3}\\d{9}");
+        UniqueSampler first = rgxGen.sampleUnique(11);
+        UniqueSampler second = rgxGen.sampleUnique(11);
+        UniqueSampler other = rgxGen.sampleUnique(12);
+        int differences = 0;
+        for (int i = 0; i < 100; i++) {
+            String value = first.next();
+            assertEquals(value, second.next());
+            assertEquals(value, first.get(i));
+            if (!value.equals(other.next())) {
+                differences++;
+            }
+        }
+        assertTrue(differences > 90);
+    }
+
+    @Test
+    void valuesAreUniqueAndMatchTest() {
+        Pattern pattern = Pattern.compile("[A-Z]{3}\\d{9}");
+        UniqueSampler sampler = RgxGen.parse(pattern.pattern())
+                                      .sampleUnique(3);
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            String value = sampler.next();
+            assertTrue(pattern.matcher(value)
+                              .matches(), value);
+            assertTrue(values.add(value), value);
+        }
+    }
+
+    @Test
+    void shardsTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-f]{2}[0-9]{2}");
+        UniqueSampler sampler = rgxGen.sampleUnique(5);
+        List<String> expected = new ArrayList<>();
+        while (sampler.hasNext()) {
+            expected.add(sampler.next());
+        }
+        List<String> actual = new ArrayList<>();
+        for (long from = 0; from < expected.size(); from += 1000) {
+            UniqueSampler shard = sampler.shard(from, from + 1000);
+            while (shard.hasNext()) {
+                actual.add(shard.next());
+            }
+        }
+        assertEquals(expected, actual);
+        assertFalse(sampler.shard(3600, 5000)
+                           .hasNext());
+        assertThrows(IllegalArgumentException.class, () -> sampler.shard(10, 5));
+    }
+
+    @Test
+    void largeCountTest() {
+        UniqueSampler sampler = RgxGen.parse("[0-9]{40}")
+                                      .sampleUnique(9);
+        assertEquals(BigInteger.TEN.pow(40), sampler.getCount());
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(values.add(sampler.next()));
+        }
+        assertEquals(sampler.get(BigInteger.valueOf(5)), sampler.get(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> sampler.get(BigInteger.TEN.pow(40)));
+    }
+
+    @Test
+    void infinitePatternTest() {
+        assertThrows(UnsupportedOperationException.class, () -> RgxGen.parse("a+")
+                                                                       .sampleUnique(1));
+    }
+}
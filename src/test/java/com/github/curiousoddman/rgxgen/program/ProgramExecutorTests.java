@@ -0,0 +1,145 @@
+package com.github.curiousoddman.rgxgen.program;
+
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.random.RandomSource;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import com.github.curiousoddman.rgxgen.visitors.GenerationVisitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiled program must produce exactly the same values as the generation visitor.
+ */
+class ProgramExecutorTests {
+    public static Stream<Arguments> getPatterns() {
+        return Stream.concat(
+                             Arrays.stream(TestPattern.values())
+                                   .map(TestPattern::getPattern),
+                             Arrays.stream(TestPatternCaseInsensitive.values())
+                                   .map(TestPatternCaseInsensitive::getPattern)
+                     )
+                     .flatMap(pattern -> IntStream.range(0, 10)
+                                                  .mapToObj(seed -> Arguments.of(pattern, seed)));
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void sameAsVisitorTest(String pattern, int seed) {
+        verifySameAsVisitor(pattern, seed, null);
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void sameAsVisitorCaseInsensitiveTest(String pattern, int seed) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, true);
+        verifySameAsVisitor(pattern, seed, properties);
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void referencedGroupsOnlySameAsVisitorTest(String pattern, int seed) {
+        Node node = new DefaultTreeBuilder(pattern, null).get();
+        verifySameAsVisitor(node, ProgramCompiler.compile(node, null), seed, null);
+    }
+
+    @Test
+    void onlyReferencedGroupsAreCapturedTest() {
+        Node node = new DefaultTreeBuilder("(a)(b|c)(d)(e)\\3\\2", null).get();
+        Program program = ProgramCompiler.compile(node, null);
+        assertArrayEquals(new int[]{2, 3}, program.getSlotGroups());
+        ProgramExecutor executor = new ProgramExecutor(program);
+        StringBuilder sb = new StringBuilder();
+        executor.execute(RandomSource.xoroshiro(1), sb);
+        assertTrue(sb.toString().matches("a(b|c)ded\\1"), sb.toString());
+    }
+
+    @Test
+    void allGroupsAreCapturedWithNotSymbolsTest() {
+        Node node = new DefaultTreeBuilder("(a)(b)(?!c)", null).get();
+        Program program = ProgramCompiler.compile(node, null);
+        assertArrayEquals(new int[]{0, 1, 2}, program.getSlotGroups());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"\\d{4}-\\d{2}-\\d{2}", "[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}", "(ab)[a-z]{3}"})
+    void fixedLayoutTemplateTest(String pattern) {
+        Node node = new DefaultTreeBuilder(pattern, null).get();
+        Program program = ProgramCompiler.compile(node, null);
+        assertNotNull(program.getTemplate());
+        assertEquals(program.getMaxLength(), program.getCapacity());
+        for (int seed = 0; seed < 10; seed++) {
+            verifySameAsVisitor(node, program, seed, null);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"a|b", "[a-z]{3,4}", "(a)\\1", "a(?!b)", "a+"})
+    void noFixedLayoutTemplateTest(String pattern) {
+        assertNull(ProgramCompiler.compile(new DefaultTreeBuilder(pattern, null).get(), null).getTemplate());
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatterns")
+    void notFlattenedSymbolSetsSameAsVisitorTest(String pattern, int seed) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.SYMBOL_SET_FLATTEN_LIMIT.setInProperties(properties, 0);
+        Node node = new DefaultTreeBuilder(pattern, properties).get();
+        verifySameAsVisitor(node, ProgramCompiler.compile(node, properties), seed, properties);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"[a-z0-9]{32}", ".{1,100}", "\\d+", "[a-z]{300,700}x", "(\\w{0,3}[^a]{1000})*"})
+    void repeatedSymbolSetSameAsVisitorTest(String pattern) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.INFINITE_PATTERN_REPETITION.setInProperties(properties, 1000);
+        for (int seed = 0; seed < 10; seed++) {
+            verifySameAsVisitor(pattern, seed, properties);
+            verifySameAsVisitor(pattern, seed, null);
+        }
+    }
+
+    private static void verifySameAsVisitor(String pattern, int seed, RgxGenProperties properties) {
+        Node node = new DefaultTreeBuilder(pattern, properties).get();
+        ProgramCompiler compiler = new ProgramCompiler(properties);
+        node.visit(compiler);
+        verifySameAsVisitor(node, compiler.getProgram(), seed, properties);
+    }
+
+    private static void verifySameAsVisitor(Node node, Program program, int seed, RgxGenProperties properties) {
+        ProgramExecutor executor = new ProgramExecutor(program);
+
+        Random visitorRandom = TestingUtilities.newRandom(seed);
+        Random programRandom = TestingUtilities.newRandom(seed);
+        for (int i = 0; i < 10; i++) {
+            GenerationVisitor visitor = GenerationVisitor.builder()
+                                                         .withRandom(visitorRandom)
+                                                         .withProperties(properties)
+                                                         .get();
+            node.visit(visitor);
+            StringBuilder sb = new StringBuilder();
+            executor.reset();
+            executor.execute(RandomSource.of(programRandom), sb);
+            assertEquals(visitor.getString(), sb.toString());
+        }
+    }
+}
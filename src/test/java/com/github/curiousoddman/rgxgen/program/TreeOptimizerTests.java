@@ -0,0 +1,154 @@
+package com.github.curiousoddman.rgxgen.program;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.data.TestPatternCaseInsensitive;
+import com.github.curiousoddman.rgxgen.model.OptimizationLevel;
+import com.github.curiousoddman.rgxgen.nodes.*;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import com.github.curiousoddman.rgxgen.visitors.GenerationVisitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TreeOptimizerTests {
+    public static Stream<String> getPatterns() {
+        return Stream.concat(Arrays.stream(TestPattern.values())
+                                   .map(TestPattern::getPattern),
+                             Arrays.stream(TestPatternCaseInsensitive.values())
+                                   .map(TestPatternCaseInsensitive::getPattern));
+    }
+
+    public static Stream<Arguments> getPatternsAndLevels() {
+        return Arrays.stream(TestPattern.values())
+                     .flatMap(pattern -> Stream.of(OptimizationLevel.PRESERVE_DISTRIBUTION, OptimizationLevel.CHANGE_DISTRIBUTION)
+                                               .map(level -> Arguments.of(pattern, level)));
+    }
+
+    private static RgxGenProperties properties(OptimizationLevel level, boolean caseInsensitive) {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.OPTIMIZATION_LEVEL.setInProperties(properties, level);
+        RgxGenOption.CASE_INSENSITIVE.setInProperties(properties, caseInsensitive);
+        return properties;
+    }
+
+    private static Node optimize(String pattern, OptimizationLevel level) {
+        RgxGenProperties properties = properties(level, false);
+        return TreeOptimizer.optimize(new DefaultTreeBuilder(pattern, properties).get(), properties);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    void sameValuesTest(String pattern) {
+        verifySameValues(pattern, properties(OptimizationLevel.PRESERVE_VALUES, false));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    void sameValuesCaseInsensitiveTest(String pattern) {
+        verifySameValues(pattern, properties(OptimizationLevel.PRESERVE_VALUES, true));
+    }
+
+    private static void verifySameValues(String pattern, RgxGenProperties properties) {
+        Node node = new DefaultTreeBuilder(pattern, properties).get();
+        Node optimized = TreeOptimizer.optimize(node, properties);
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = TestingUtilities.newRandom(seed);
+            Random optimizedRandom = TestingUtilities.newRandom(seed);
+            for (int i = 0; i < 10; i++) {
+                GenerationVisitor visitor = GenerationVisitor.builder().withRandom(random).withProperties(properties).get();
+                node.visit(visitor);
+                GenerationVisitor optimizedVisitor = GenerationVisitor.builder().withRandom(optimizedRandom).withProperties(properties).get();
+                optimized.visit(optimizedVisitor);
+                assertEquals(visitor.getString(), optimizedVisitor.getString());
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("getPatternsAndLevels")
+    void generatesMatchingValuesTest(TestPattern testPattern, OptimizationLevel level) {
+        assumeTrue(testPattern.isUsableWithJavaPattern());
+        RgxGen rgxGen = RgxGen.parse(properties(level, false), testPattern.getPattern());
+        Pattern pattern = Pattern.compile(testPattern.getPattern());
+        Random random = TestingUtilities.newRandom(17);
+        for (int i = 0; i < 20; i++) {
+            String value = rgxGen.generate(random);
+            boolean matches = testPattern.useFindForMatching() ? pattern.matcher(value).find() : pattern.matcher(value).matches();
+            assertTrue(matches, value);
+        }
+    }
+
+    @Test
+    void literalsAreMergedTest() {
+        Node node = optimize("(a)(?:b)c{3}((d))e{1}", OptimizationLevel.PRESERVE_VALUES);
+        assertInstanceOf(FinalSymbol.class, node);
+        assertEquals("abcccde", ((FinalSymbol) node).getValue());
+    }
+
+    @Test
+    void referencedGroupsAreKeptTest() {
+        Node node = optimize("x(a)y\\1", OptimizationLevel.PRESERVE_VALUES);
+        assertInstanceOf(Sequence.class, node);
+        assertInstanceOf(Group.class, ((Sequence) node).getNodes()[1]);
+    }
+
+    @Test
+    void choiceOfCharactersTest() {
+        assertInstanceOf(SymbolSet.class, optimize("a|b|c", OptimizationLevel.PRESERVE_VALUES));
+        // Symbol set would pick characters in different order
+        assertInstanceOf(Choice.class, optimize("c|b|a", OptimizationLevel.PRESERVE_VALUES));
+        assertInstanceOf(SymbolSet.class, optimize("c|b|a", OptimizationLevel.PRESERVE_DISTRIBUTION));
+        // 'a' is picked more often than 'b'
+        assertInstanceOf(Choice.class, optimize("a|a|b", OptimizationLevel.PRESERVE_DISTRIBUTION));
+        assertInstanceOf(SymbolSet.class, optimize("a|a|b", OptimizationLevel.CHANGE_DISTRIBUTION));
+        assertInstanceOf(Choice.class, optimize("a|[0-9]", OptimizationLevel.PRESERVE_DISTRIBUTION));
+        assertInstanceOf(SymbolSet.class, optimize("a|[0-9]|(b|c)", OptimizationLevel.CHANGE_DISTRIBUTION));
+    }
+
+    @Test
+    void valueTablesAreSharedTest() {
+        String octet = "(25[0-5]|2[0-4]\\d|[0-1]?\\d?\\d)";
+        Node node = optimize(octet + "\\." + octet + "\\." + octet + "\\." + octet, OptimizationLevel.CHANGE_DISTRIBUTION);
+        assertInstanceOf(Sequence.class, node);
+        Node[] nodes = ((Sequence) node).getNodes();
+        assertEquals(7, nodes.length);
+        assertInstanceOf(Choice.class, nodes[0]);
+        // All distinct values, e.g. "1", "01" and "001" of the octet
+        assertEquals(6 + 50 + 10 + 100 + 200, ((Choice) nodes[0]).getNodes().length);
+        for (int i = 2; i < nodes.length; i += 2) {
+            assertSame(nodes[0], nodes[i]);
+        }
+    }
+
+    @Test
+    void valueTablesTest() {
+        Node node = optimize("x|y[0-3]", OptimizationLevel.CHANGE_DISTRIBUTION);
+        assertInstanceOf(Choice.class, node);
+        assertEquals(5, ((Choice) node).getNodes().length);
+        assertInstanceOf(Sequence.class, optimize("(x|y)[0-3]", OptimizationLevel.PRESERVE_DISTRIBUTION));
+        // Referenced group must keep its value
+        assertInstanceOf(Sequence.class, optimize("(x|y)\\1", OptimizationLevel.CHANGE_DISTRIBUTION));
+        // Too many values
+        assertInstanceOf(Repeat.class, optimize("[a-z]{3}", OptimizationLevel.CHANGE_DISTRIBUTION));
+    }
+
+    @Test
+    void noOptimizationTest() {
+        RgxGenProperties properties = properties(OptimizationLevel.NONE, false);
+        Node node = new DefaultTreeBuilder("(a)(b)", properties).get();
+        assertSame(node, TreeOptimizer.optimize(node, properties));
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.curiousoddman.rgxgen.random;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSourceTests {
+    public static Stream<Arguments> getSources() {
+        return Stream.of(
+                Arguments.of("java.util.Random", (Supplier<RandomSource>) () -> RandomSource.of(new Random(42))),
+                Arguments.of("SplittableRandom", (Supplier<RandomSource>) () -> RandomSource.of(new SplittableRandom(42))),
+                Arguments.of("ThreadLocalRandom", (Supplier<RandomSource>) RandomSource::threadLocal),
+                Arguments.of("Xoroshiro", (Supplier<RandomSource>) () -> RandomSource.xoroshiro(42)),
+                Arguments.of("BitPool", (Supplier<RandomSource>) () -> RandomSource.bitPool(RandomSource.xoroshiro(42)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getSources")
+    void nextIntWithinBoundsTest(String name, Supplier<RandomSource> sourceSupplier) {
+        RandomSource source = sourceSupplier.get();
+        for (int bound : new int[]{1, 2, 3, 10, 95, 1 << 16, Integer.MAX_VALUE}) {
+            for (int i = 0; i < 1000; i++) {
+                int value = source.nextInt(bound);
+                assertTrue(value >= 0 && value < bound, "Value " + value + " is not within bound " + bound);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getSources")
+    void nextIntCoversAllValuesTest(String name, Supplier<RandomSource> sourceSupplier) {
+        RandomSource source = sourceSupplier.get();
+        boolean[] seen = new boolean[10];
+        for (int i = 0; i < 1000; i++) {
+            seen[source.nextInt(seen.length)] = true;
+        }
+        for (boolean b : seen) {
+            assertTrue(b);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getSources")
+    void nextBitsWithinBoundsTest(String name, Supplier<RandomSource> sourceSupplier) {
+        RandomSource source = sourceSupplier.get();
+        for (int bits = 1; bits < 32; bits++) {
+            for (int i = 0; i < 100; i++) {
+                int value = source.nextBits(bits);
+                assertTrue(value >= 0 && value < (1L << bits), "Value " + value + " has more than " + bits + " bits");
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getSources")
+    void nonPositiveBoundTest(String name, Supplier<RandomSource> sourceSupplier) {
+        RandomSource source = sourceSupplier.get();
+        assertThrows(IllegalArgumentException.class, () -> source.nextInt(0));
+        assertThrows(IllegalArgumentException.class, () -> source.nextInt(-1));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getSources")
+    void generatesMatchingValuesTest(String name, Supplier<RandomSource> sourceSupplier) {
+        String pattern = "[a-f0-9]{4}-(ab|cd)+\\d?x*";
+        RgxGen rgxGen = RgxGen.parse(pattern);
+        Pattern compiled = Pattern.compile(pattern);
+        RandomSource source = sourceSupplier.get();
+        for (int i = 0; i < 100; i++) {
+            String value = rgxGen.generate(source);
+            assertTrue(compiled.matcher(value).matches(), value);
+        }
+    }
+
+    @Test
+    void javaUtilRandomAdapterProducesSameValuesTest() {
+        RgxGen rgxGen = RgxGen.parse("[a-z]{3,10}(x|y|z)\\d+");
+        Random random = new Random(7);
+        RandomSource source = RandomSource.of(new Random(7));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rgxGen.generate(random), rgxGen.generate(source));
+        }
+    }
+
+    @Test
+    void xoroshiroIsRepeatableTest() {
+        RandomSource source1 = RandomSource.xoroshiro(123);
+        RandomSource source2 = RandomSource.xoroshiro(123);
+        RandomSource source3 = RandomSource.xoroshiro(124);
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            long value = source1.nextLong();
+            assertEquals(value, source2.nextLong());
+            differs |= value != source3.nextLong();
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    void bitPoolUsesFewerWordsTest() {
+        int[] words = new int[1];
+        RandomSource counting = new XoroshiroRandomSource(5) {
+            @Override
+            public long nextLong() {
+                ++words[0];
+                return super.nextLong();
+            }
+        };
+        RandomSource source = RandomSource.bitPool(counting);
+        int[] counts = new int[10];
+        for (int i = 0; i < 10000; i++) {
+            counts[source.nextInt(10)]++;
+        }
+        // 4 bits per draw and 1.6 draws on average
+        assertTrue(words[0] < 10000 * 4 * 2 / 64, "Used " + words[0] + " words");
+        for (int count : counts) {
+            assertTrue(count > 900 && count < 1100, "Not uniform: " + Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void bitPoolValuesSpanWordsTest() {
+        RandomSource source = RandomSource.bitPool(RandomSource.xoroshiro(9));
+        boolean highBitSet = false;
+        for (int i = 0; i < 1000; i++) {
+            // 31 does not divide 64, so values are assembled from two words
+            int value = source.nextBits(31);
+            assertTrue(value >= 0);
+            highBitSet |= value >= 1 << 30;
+        }
+        assertTrue(highBitSet);
+    }
+
+    @Test
+    void delegatingRandomTest() {
+        Random random = new Random(5);
+        assertSame(random, DelegatingRandom.of(RandomSource.of(random)));
+
+        Random delegating = DelegatingRandom.of(RandomSource.xoroshiro(7));
+        RandomSource expected = RandomSource.xoroshiro(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.nextInt(10 + i), delegating.nextInt(10 + i));
+            assertEquals(expected.nextLong(), delegating.nextLong());
+            assertEquals(expected.nextBoolean(), delegating.nextBoolean());
+        }
+        assertThrows(IllegalArgumentException.class, () -> delegating.nextInt(0));
+    }
+}
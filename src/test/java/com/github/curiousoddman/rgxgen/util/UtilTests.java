@@ -3,6 +3,9 @@ package com.github.curiousoddman.rgxgen.util;
 import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -93,5 +96,34 @@ public class UtilTests {
         assertEquals(expected, strings);
     }
 
-}
 
+    @Test
+    public void encodeUtf8Test() {
+        for (String value : new String[]{"", "abc", "é", "ж\u20AC", "x\uD83D\uDE00y", "\uD83D", "a\uDE00b", "\uD83Dx\uFFFF"}) {
+            byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, utf8Length(value), value);
+            assertArrayEquals(expected, toUtf8Bytes(value), value);
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+            assertEquals(expected.length, encodeUtf8(value, direct));
+            direct.flip();
+            byte[] actual = new byte[direct.remaining()];
+            direct.get(actual);
+            assertArrayEquals(expected, actual, value);
+        }
+    }
+
+    @Test
+    public void geometricSumTest() {
+        for (int base = 0; base < 5; base++) {
+            for (int from = 0; from < 6; from++) {
+                for (int to = from - 1; to < 8; to++) {
+                    BigInteger expected = BigInteger.ZERO;
+                    for (int i = from; i <= to; i++) {
+                        expected = expected.add(BigInteger.valueOf(base).pow(i));
+                    }
+                    assertEquals(expected, geometricSum(BigInteger.valueOf(base), from, to), base + "^" + from + ".." + to);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.curiousoddman.rgxgen.visitors;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+import com.github.curiousoddman.rgxgen.config.RgxGenOption;
+import com.github.curiousoddman.rgxgen.config.RgxGenProperties;
+import com.github.curiousoddman.rgxgen.data.TestPattern;
+import com.github.curiousoddman.rgxgen.nodes.Node;
+import com.github.curiousoddman.rgxgen.parsing.dflt.DefaultTreeBuilder;
+import com.github.curiousoddman.rgxgen.testutil.TestingUtilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LengthAnalysisVisitorTests {
+    public static Stream<TestPattern> getPatterns() {
+        return Arrays.stream(TestPattern.values());
+    }
+
+    private static LengthAnalysisVisitor analyze(String pattern, RgxGenProperties properties) {
+        Node node = new DefaultTreeBuilder(pattern, properties).get();
+        LengthAnalysisVisitor visitor = new LengthAnalysisVisitor(properties);
+        node.visit(visitor);
+        return visitor;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPatterns")
+    void generatedValuesAreWithinBoundsTest(TestPattern testPattern) {
+        LengthAnalysisVisitor visitor = analyze(testPattern.getPattern(), null);
+        RgxGen rgxGen = RgxGen.parse(testPattern.getPattern());
+        Random random = TestingUtilities.newRandom(3);
+        for (int i = 0; i < 100; i++) {
+            int length = rgxGen.generate(random).length();
+            assertTrue(length >= visitor.getMinLength(), "Length " + length + " is less than " + visitor.getMinLength());
+            assertTrue(visitor.getMaxLength() == LengthAnalysisVisitor.UNBOUNDED || length <= visitor.getMaxLength(),
+                       "Length " + length + " is greater than " + visitor.getMaxLength());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ' ', value = {
+            "\\d{4}-\\d{2}-\\d{2} 10 10 10.0",
+            "[0-9a-f]{8}-[0-9a-f]{4} 13 13 13.0",
+            "a(b|cde) 2 4 3.0",
+            "[a-z]{2,4} 2 4 3.0",
+            "(ab)?c 1 3 2.0",
+            "(ab)\\1 2 4 4.0",
+    })
+    void lengthsTest(String pattern, long min, long max, double expected) {
+        LengthAnalysisVisitor visitor = analyze(pattern, null);
+        assertEquals(min, visitor.getMinLength());
+        assertEquals(max, visitor.getMaxLength());
+        assertEquals(expected, visitor.getExpectedLength(), 1e-9);
+        assertEquals(min == max, visitor.isFixedLength());
+    }
+
+    @Test
+    void infiniteRepetitionLimitTest() {
+        RgxGenProperties properties = new RgxGenProperties();
+        RgxGenOption.INFINITE_PATTERN_REPETITION.setInProperties(properties, 10);
+        LengthAnalysisVisitor visitor = analyze("a+", properties);
+        assertEquals(1, visitor.getMinLength());
+        assertEquals(10, visitor.getMaxLength());
+        assertEquals(100, analyze("a*", null).getMaxLength());
+    }
+
+    @Test
+    void notMatchingLengthIsUnboundedTest() {
+        assertEquals(LengthAnalysisVisitor.UNBOUNDED, analyze("a(?!b)", null).getMaxLength());
+    }
+}
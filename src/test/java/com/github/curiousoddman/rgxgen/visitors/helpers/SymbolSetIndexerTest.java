@@ -4,6 +4,7 @@ import com.github.curiousoddman.rgxgen.model.MatchType;
 import com.github.curiousoddman.rgxgen.model.SymbolRange;
 import com.github.curiousoddman.rgxgen.nodes.SymbolSet;
 import com.github.curiousoddman.rgxgen.util.chars.CharList;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -18,6 +19,7 @@ import static com.github.curiousoddman.rgxgen.parsing.dflt.ConstantsProvider.DEL
 import static com.github.curiousoddman.rgxgen.parsing.dflt.ConstantsProvider.SPACE_ASCII_CODE;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
@@ -76,4 +78,32 @@ class SymbolSetIndexerTest {
             fail("There were mismatched between generated and expected characters");
         }
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("getSymbolSets")
+    void sameCharactersForAnyFlattenLimitTest(String name, SymbolSet symbolSet, int expectedSize, CharList expectedCharacters) {
+        SymbolSetIndexer flattened = symbolSet.getSymbolSetIndexer();
+        SymbolSetIndexer searched = flattened.withFlattenLimit(0);
+        assertEquals(expectedSize, searched.size());
+        for (int i = 0; i < expectedSize; i++) {
+            assertEquals(expectedCharacters.get(i), flattened.get(i));
+            assertEquals(expectedCharacters.get(i), searched.get(i));
+        }
+        assertArrayEquals(flattened.getAll(), searched.getAll());
+    }
+
+    @Test
+    void largeSetIsNotFlattenedTest() {
+        SymbolSet symbolSet = symbolSet(asList(range('a', 'z'), RANGE_OUTSIDE_OF_SYMBOLS), '1', '2');
+        SymbolSetIndexer indexer = symbolSet.getSymbolSetIndexer();
+        SymbolSetIndexer flattened = indexer.withFlattenLimit(indexer.size());
+        assertEquals(2 + 26 + 0x1001, indexer.size());
+        for (int i = 0; i < indexer.size(); i++) {
+            assertEquals(indexer.get(i), flattened.get(i));
+        }
+        assertEquals('1', indexer.get(0));
+        assertEquals('a', indexer.get(2));
+        assertEquals((char) 0x1000, indexer.get(28));
+        assertEquals((char) 0x2000, indexer.get(indexer.size() - 1));
+    }
+}